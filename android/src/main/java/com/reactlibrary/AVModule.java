@@ -5,6 +5,10 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.media.AudioManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
 import android.util.Log;
 
 import com.facebook.react.bridge.Arguments;
@@ -14,20 +18,69 @@ import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
+import com.reactlibrary.player.BufferBudget;
+import com.reactlibrary.player.DecodedAudioCache;
+import com.reactlibrary.player.IdlePlayerEvictor;
+import com.reactlibrary.player.MediaCache;
+import com.reactlibrary.player.MediaPreloader;
+import com.reactlibrary.player.PlaybackMetrics;
 import com.reactlibrary.player.PlayerData;
+import com.reactlibrary.player.PlayerPool;
+import com.reactlibrary.player.ProgressUpdateScheduler;
+import com.reactlibrary.player.SoundEffectEngine;
+import com.reactlibrary.player.StatusBuffer;
+import com.reactlibrary.player.SyncGroup;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class AVModule extends ReactContextBaseJavaModule
     implements LifecycleEventListener, AudioManager.OnAudioFocusChangeListener {
   private static final String AUDIO_MODE_SHOULD_DUCK_KEY = "shouldDuckAndroid";
   private static final String AUDIO_MODE_INTERRUPTION_MODE_KEY = "interruptionModeAndroid";
+  private static final String CACHE_CONFIG_ENABLED_KEY = "enabled";
+  private static final String CACHE_CONFIG_MAX_BYTES_KEY = "maxBytes";
+  private static final String CACHE_CONFIG_CACHE_ONLY_KEY = "cacheOnly";
+  private static final String PRELOAD_LENGTH_BYTES_KEY = "lengthBytes";
+  private static final String PRELOAD_LENGTH_MILLIS_KEY = "lengthMillis";
+  private static final String PRELOAD_ESTIMATED_BITRATE_KEY = "estimatedBitrate";
+  private static final String PRELOAD_MAX_CONCURRENT_DOWNLOADS_KEY = "maxConcurrentDownloads";
+  private static final long PRELOAD_DEFAULT_ESTIMATED_BITRATE = 128000;
+  private static final String STATUS_EVENT_BATCH_KEY = "batch";
+  private static final String STATUS_EVENT_BATCH_INTERVAL_MILLIS_KEY = "batchIntervalMillis";
+  private static final String STATUS_EVENT_DELTA_KEY = "delta";
+  private static final String PLAYER_POOL_MAX_SIZE_KEY = "maxSize";
+  private static final String PLAYER_POOL_WARM_UP_COUNT_KEY = "warmUpCount";
+  private static final String BUFFER_BUDGET_MAX_BYTES_KEY = "maxBytes";
+  private static final String IDLE_EVICTION_MAX_PREPARED_COUNT_KEY = "maxPreparedCount";
+  private static final String IDLE_EVICTION_MAX_IDLE_MILLIS_KEY = "maxIdleMillis";
+  private static final String SOUND_EFFECTS_MAX_VOICES_KEY = "maxVoices";
+  private static final String SOUND_EFFECTS_CACHE_MAX_BYTES_KEY = "cacheMaxBytes";
+  private static final String SOUND_EFFECTS_USE_DIRECT_BUFFERS_KEY = "useDirectBuffers";
+  private static final int PRELOAD_DEFAULT_MAX_CONCURRENT_DOWNLOADS = 2;
+  private static final String SYNC_GROUP_MIN_BUFFERED_MILLIS_KEY = "minBufferedMillis";
+  private static final String SYNC_GROUP_DRIFT_THRESHOLD_MILLIS_KEY = "driftThresholdMillis";
+  private static final String SYNC_GROUP_DRIFT_CHECK_INTERVAL_MILLIS_KEY = "driftCheckIntervalMillis";
+  private static final String SYNC_GROUP_START_TIMEOUT_MILLIS_KEY = "startTimeoutMillis";
+  private static final String METRICS_EVENT_ENABLED_KEY = "enabled";
+  private static final String METRICS_EVENT_INTERVAL_MILLIS_KEY = "intervalMillis";
+  private static final int METRICS_EVENT_DEFAULT_INTERVAL_MILLIS = 10000;
+  private static final String INSTRUMENTATION_ENABLED_KEY = "enabled";
+  private static final String INSTRUMENTATION_TRACE_KEY = "trace";
+  private static final String BATCH_KEY_KEY = "key";
+  private static final String BATCH_STATUS_KEY = "status";
+  private static final String BATCH_ERROR_KEY = "error";
+  private static final String BATCH_ERROR_CODE_KEY = "code";
 
   private static final String TAG = "PakExo";
 
@@ -45,6 +98,13 @@ public class AVModule extends ReactContextBaseJavaModule
   }
 
   private final ReactApplicationContext mReactApplicationContext;
+  // All players, their events and the bridge methods run on this thread, so that neither the main
+  // thread nor the native modules thread shared with other modules can delay playback.
+  private final HandlerThread mPlaybackThread;
+  private final Handler mPlaybackHandler;
+  // Disk IO of the media cache, in the order it was requested.
+  private final ThreadPoolExecutor mCacheExecutor = new ThreadPoolExecutor(
+      1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
 
   private boolean mEnabled = true;
   private boolean mPlayInBackground = true;
@@ -63,7 +123,70 @@ public class AVModule extends ReactContextBaseJavaModule
   private int mSoundMapKeyCount = 0;
   // There will never be many PlayerData objects in the map, so HashMap is most efficient.
   private final Map<Integer, PlayerData> mSoundMap = new HashMap<>();
-  private final Set<AudioEventHandler> mVideoViewSet = new HashSet<>();
+  private final StatusBuffer mStatusBuffer = new StatusBuffer();
+  // Scratch fields of getStatusFieldsForSoundsSync, kept per calling thread and grown as needed.
+  private final ThreadLocal<double[]> mStatusFields = new ThreadLocal<>();
+  private final Instrumentation mInstrumentation = new Instrumentation();
+  private final AudioFocusRegistry mAudioFocusRegistry = new AudioFocusRegistry();
+  private int mSyncGroupKeyCount = 0;
+  private final Map<Integer, SyncGroup> mSyncGroups = new HashMap<>();
+  private final MediaPreloader mMediaPreloader;
+  private PlayerPool mPlayerPool = null;
+  private final BufferBudget mBufferBudget = new BufferBudget(BufferBudget.DEFAULT_MAX_BYTES);
+  private ProgressUpdateScheduler mProgressUpdateScheduler = null;
+  private IdlePlayerEvictor mIdlePlayerEvictor = null;
+  private StatusEventEmitter mStatusEventEmitter = null;
+  private boolean mShouldSendStatusDeltas = false;
+  private final DecodedAudioCache mDecodedAudioCache = new DecodedAudioCache(DecodedAudioCache.DEFAULT_MAX_BYTES);
+  private SoundEffectEngine mSoundEffectEngine = null;
+  private int mSoundEffectMaxVoices = SoundEffectEngine.DEFAULT_MAX_VOICES;
+  private Handler mMetricsEventHandler = null;
+  private int mMetricsEventIntervalMillis = METRICS_EVENT_DEFAULT_INTERVAL_MILLIS;
+  private final Runnable mMetricsEventRunnable = new Runnable() {
+    @Override
+    public void run() {
+      sendEvent("didUpdatePlaybackMetrics", getAggregatedMetrics());
+      mMetricsEventHandler.postDelayed(this, mMetricsEventIntervalMillis);
+    }
+  };
+
+  // Allocated once, so that visiting the registered handlers allocates nothing.
+  private final AudioFocusRegistry.Visitor mPauseVisitor = new AudioFocusRegistry.Visitor() {
+    @Override
+    public void visit(final AudioEventHandler handler) {
+      handler.onPause();
+    }
+  };
+  private final AudioFocusRegistry.Visitor mResumeVisitor = new AudioFocusRegistry.Visitor() {
+    @Override
+    public void visit(final AudioEventHandler handler) {
+      handler.onResume();
+    }
+  };
+  private final AudioFocusRegistry.Visitor mPauseImmediatelyVisitor = new AudioFocusRegistry.Visitor() {
+    @Override
+    public void visit(final AudioEventHandler handler) {
+      handler.pauseImmediately();
+    }
+  };
+  private final AudioFocusRegistry.Visitor mUpdateVolumeVisitor = new AudioFocusRegistry.Visitor() {
+    @Override
+    public void visit(final AudioEventHandler handler) {
+      handler.updateVolumeMuteAndDuck();
+    }
+  };
+  private final AudioFocusRegistry.Visitor mAudioFocusInterruptionBeganVisitor = new AudioFocusRegistry.Visitor() {
+    @Override
+    public void visit(final AudioEventHandler handler) {
+      handler.handleAudioFocusInterruptionBegan();
+    }
+  };
+  private final AudioFocusRegistry.Visitor mAudioFocusGainedVisitor = new AudioFocusRegistry.Visitor() {
+    @Override
+    public void visit(final AudioEventHandler handler) {
+      handler.handleAudioFocusGained();
+    }
+  };
 
 
   @Override
@@ -76,6 +199,11 @@ public class AVModule extends ReactContextBaseJavaModule
 
     mReactApplicationContext = reactContext;
 
+    mPlaybackThread = new HandlerThread("AVPlayback", Process.THREAD_PRIORITY_AUDIO);
+    mPlaybackThread.start();
+    mPlaybackHandler = new Handler(mPlaybackThread.getLooper());
+    mCacheExecutor.allowCoreThreadTimeOut(true);
+
     mAudioManager = (AudioManager) mReactApplicationContext.getSystemService(Context.AUDIO_SERVICE);
     // Implemented because of the suggestion here:
     // https://developer.android.com/guide/topics/media-apps/volume-and-earphones.html
@@ -85,49 +213,135 @@ public class AVModule extends ReactContextBaseJavaModule
       public void onReceive(Context context, Intent intent) {
         Log.d(TAG, "Become noisy!");
         if (AudioManager.ACTION_AUDIO_BECOMING_NOISY.equals(intent.getAction())) {
-          abandonAudioFocus();
+          runOnPlaybackThread("onAudioBecomingNoisy", new Runnable() {
+            @Override
+            public void run() {
+              abandonAudioFocus();
+            }
+          });
         }
       }
     };
     //TODO: uncomment this registration when the above TODO is fixed
     //mReactApplicationContext.registerReceiver(mNoisyAudioStreamReceiver, new IntentFilter(AudioManager.ACTION_AUDIO_BECOMING_NOISY));
 
+    mMediaPreloader = new MediaPreloader(reactContext);
+
     mReactApplicationContext.addLifecycleEventListener(this);
   }
 
+  public Looper getPlaybackLooper() {
+    return mPlaybackThread.getLooper();
+  }
+
+  // Posts to the playback thread without waiting for it, or runs right away when already on it.
+  // The instrumentation records the time spent in the queue and running under the name of the
+  // operation, and the number of values in its payload.
+  private void runOnPlaybackThread(final String name, final Runnable runnable) {
+    runOnPlaybackThread(name, 0, runnable);
+  }
+
+  private void runOnPlaybackThread(final String name, final ReadableMap payload, final Runnable runnable) {
+    runOnPlaybackThread(name, mInstrumentation.isEnabled() ? Instrumentation.getPayloadValueCount(payload) : 0, runnable);
+  }
+
+  private void runOnPlaybackThread(final String name, final ReadableArray payload, final Runnable runnable) {
+    runOnPlaybackThread(name, mInstrumentation.isEnabled() ? Instrumentation.getPayloadValueCount(payload) : 0, runnable);
+  }
+
+  private void runOnPlaybackThread(final String name, final int payloadValueCount, final Runnable runnable) {
+    final Runnable instrumented = new Runnable() {
+      @Override
+      public void run() {
+        final long token = mInstrumentation.begin(name);
+        try {
+          runnable.run();
+        } finally {
+          mInstrumentation.end(name, token, payloadValueCount);
+        }
+      }
+    };
+    if (Looper.myLooper() == mPlaybackThread.getLooper()) {
+      instrumented.run();
+      return;
+    }
+    final Runnable posted;
+    if (mInstrumentation.isEnabled()) {
+      final long postedNanos = System.nanoTime();
+      posted = new Runnable() {
+        @Override
+        public void run() {
+          mInstrumentation.recordQueueDelay(name, (System.nanoTime() - postedNanos) / 1000);
+          instrumented.run();
+        }
+      };
+    } else {
+      posted = instrumented;
+    }
+    if (!mPlaybackHandler.post(posted)) {
+      Log.w(TAG, "Dropped " + name + " after the playback thread quit.");
+    }
+  }
+
   private void sendEvent(String eventName, WritableMap params) {
+    final long token = mInstrumentation.begin(eventName);
+    final int payloadValueCount = token != 0 ? Instrumentation.getPayloadValueCount(params) : 0;
     mReactApplicationContext
         .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
         .emit(eventName, params);
+    mInstrumentation.end(eventName, token, payloadValueCount);
   }
 
-  // LifecycleEventListener
+  // LifecycleEventListener, called on the main thread and handled on the playback thread.
 
   @Override
   public void onHostResume() {
-    //TODO: consider to mReactApplicationContext.registerReceiver here
-    if (mAppIsPaused) {
-      mAppIsPaused = false;
-      for (final AudioEventHandler handler : getAllRegisteredAudioEventHandlers()) {
-        handler.onResume();
+    runOnPlaybackThread("onHostResume", new Runnable() {
+      @Override
+      public void run() {
+        //TODO: consider to mReactApplicationContext.registerReceiver here
+        if (mAppIsPaused) {
+          mAppIsPaused = false;
+          mAudioFocusRegistry.forEach(mResumeVisitor);
+        }
       }
-    }
+    });
   }
 
   @Override
   public void onHostPause() {
-    //PAK: test if this works properly. This is invoced when app goas to background.
-    if (!mAppIsPaused && !mPlayInBackground) {
-      mAppIsPaused = true;
-      for (final AudioEventHandler handler : getAllRegisteredAudioEventHandlers()) {
-        handler.onPause();
+    runOnPlaybackThread("onHostPause", new Runnable() {
+      @Override
+      public void run() {
+        //PAK: test if this works properly. This is invoced when app goas to background.
+        if (!mAppIsPaused && !mPlayInBackground) {
+          mAppIsPaused = true;
+          mAudioFocusRegistry.forEach(mPauseVisitor);
+          abandonAudioFocus();
+        }
       }
-      abandonAudioFocus();
-    }
+    });
   }
 
   @Override
   public void onHostDestroy() {
+    runOnPlaybackThread("onHostDestroy", new Runnable() {
+      @Override
+      public void run() {
+        releaseAll();
+      }
+    });
+  }
+
+  // Lets the messages posted so far run, including the release of the players above, before the
+  // playback thread ends.
+  @Override
+  public void onCatalystInstanceDestroy() {
+    onHostDestroy();
+    mPlaybackThread.quitSafely();
+  }
+
+  private void releaseAll() {
     try  {
       //TODO: uncomment this registration when the above TODO is fixed
       //mReactApplicationContext.unregisterReceiver(mNoisyAudioStreamReceiver);
@@ -144,21 +358,93 @@ public class AVModule extends ReactContextBaseJavaModule
     for (final Integer key : newMap.keySet()) {
       removeSoundForKey(key);
     }
+    for (final SyncGroup group : mSyncGroups.values()) {
+      group.release();
+    }
+    mSyncGroups.clear();
+    if (mMetricsEventHandler != null) {
+      mMetricsEventHandler.removeCallbacks(mMetricsEventRunnable);
+    }
+    mInstrumentation.setEnabled(false, false);
+    mMediaPreloader.cancel(null);
+    if (mIdlePlayerEvictor != null) {
+      mIdlePlayerEvictor.clear();
+    }
+    if (mPlayerPool != null) {
+      mPlayerPool.clear();
+    }
+    if (mSoundEffectEngine != null) {
+      mSoundEffectEngine.release();
+      mSoundEffectEngine = null;
+    }
+    mDecodedAudioCache.clear();
 
     abandonAudioFocus();
   }
 
+  // Players are pooled on the playback looper, which becomes their application looper.
+  public PlayerPool getPlayerPool() {
+    if (mPlayerPool == null) {
+      mPlayerPool = new PlayerPool(mReactApplicationContext, getPlaybackLooper(), mBufferBudget);
+    }
+    return mPlayerPool;
+  }
+
+  // Evicts idle players of the sounds in the map on the playback looper.
+  public IdlePlayerEvictor getIdlePlayerEvictor() {
+    if (mIdlePlayerEvictor == null) {
+      mIdlePlayerEvictor = new IdlePlayerEvictor(getPlaybackLooper(), mSoundMap.values());
+    }
+    return mIdlePlayerEvictor;
+  }
+
+  // A single tick drives the progress updates of all sounds on the playback looper.
+  public ProgressUpdateScheduler getProgressUpdateScheduler() {
+    if (mProgressUpdateScheduler == null) {
+      mProgressUpdateScheduler = new ProgressUpdateScheduler(getPlaybackLooper());
+    }
+    return mProgressUpdateScheduler;
+  }
+
+  // Created on the first load of a sound effect, and only then opens its AudioTrack.
+  public SoundEffectEngine getSoundEffectEngine() {
+    if (mSoundEffectEngine == null) {
+      mSoundEffectEngine = new SoundEffectEngine(mReactApplicationContext, mSoundEffectMaxVoices, mDecodedAudioCache);
+    }
+    return mSoundEffectEngine;
+  }
+
+  // Holds the latest status of every sound for synchronous reads from any thread.
+  public StatusBuffer getStatusBuffer() {
+    return mStatusBuffer;
+  }
+
+  private StatusEventEmitter getStatusEventEmitter() {
+    if (mStatusEventEmitter == null) {
+      mStatusEventEmitter = new StatusEventEmitter(mReactApplicationContext, mInstrumentation, getPlaybackLooper());
+    }
+    return mStatusEventEmitter;
+  }
+
   // Global audio state control API
 
-  private Set<AudioEventHandler> getAllRegisteredAudioEventHandlers() {
-    final Set<AudioEventHandler> set = new HashSet<>();
-    set.addAll(mVideoViewSet);
-    set.addAll(mSoundMap.values());
-    return set;
+  // Must be called by registered handlers whenever the result of requiresAudioFocus() may have
+  // changed, which keeps the focus decisions below from polling every handler.
+  public void updateAudioFocusRequirement(final AudioFocusRegistry.Node node) {
+    mAudioFocusRegistry.update(node);
   }
 
   @Override // AudioManager.OnAudioFocusChangeListener
-  public void onAudioFocusChange(int focusChange) {
+  public void onAudioFocusChange(final int focusChange) {
+    runOnPlaybackThread("onAudioFocusChange", new Runnable() {
+      @Override
+      public void run() {
+        handleAudioFocusChange(focusChange);
+      }
+    });
+  }
+
+  private void handleAudioFocusChange(final int focusChange) {
     switch (focusChange) {
       case AudioManager.AUDIOFOCUS_LOSS_TRANSIENT_CAN_DUCK:
         if (mShouldDuckAudio) {
@@ -171,16 +457,12 @@ public class AVModule extends ReactContextBaseJavaModule
       case AudioManager.AUDIOFOCUS_LOSS:
         mIsDuckingAudio = false;
         mAcquiredAudioFocus = false;
-        for (final AudioEventHandler handler : getAllRegisteredAudioEventHandlers()) {
-          handler.handleAudioFocusInterruptionBegan();
-        }
+        mAudioFocusRegistry.forEach(mAudioFocusInterruptionBeganVisitor);
         break;
       case AudioManager.AUDIOFOCUS_GAIN:
         mIsDuckingAudio = false;
         mAcquiredAudioFocus = true;
-        for (final AudioEventHandler handler : getAllRegisteredAudioEventHandlers()) {
-          handler.handleAudioFocusGained();
-        }
+        mAudioFocusRegistry.forEach(mAudioFocusGainedVisitor);
         break;
     }
   }
@@ -210,22 +492,14 @@ public class AVModule extends ReactContextBaseJavaModule
   }
 
   private void abandonAudioFocus() {
-    for (final AudioEventHandler handler : getAllRegisteredAudioEventHandlers()) {
-      //Log.d(TAG, "pak abandonAudioFocus, handler: " + handler); handler is com.reactlibrary.player.SimpleExoPlayerData
-      if (handler.requiresAudioFocus()) {
-        handler.pauseImmediately();
-      }
-    }
+    mAudioFocusRegistry.forEachRequiringAudioFocus(mPauseImmediatelyVisitor);
     mAcquiredAudioFocus = false;
     mAudioManager.abandonAudioFocus(this);
   }
 
   public void abandonAudioFocusIfUnused() { // used by PlayerData
-
-    for (final AudioEventHandler handler : getAllRegisteredAudioEventHandlers()) {
-      if (handler.requiresAudioFocus()) {
-        return;
-      }
+    if (mAudioFocusRegistry.isAudioFocusRequired()) {
+      return;
     }
     abandonAudioFocus();
   }
@@ -235,46 +509,337 @@ public class AVModule extends ReactContextBaseJavaModule
   }
 
   private void updateDuckStatusForAllPlayersPlaying() {
-    for (final AudioEventHandler handler : getAllRegisteredAudioEventHandlers()) {
-      handler.updateVolumeMuteAndDuck();
-    }
+    // Handlers that do not require audio focus are paused or muted.
+    mAudioFocusRegistry.forEachRequiringAudioFocus(mUpdateVolumeVisitor);
   }
 //TODO: not implemented yet
   @ReactMethod
   public void setPlayInBackground(final Boolean value, final Promise promise) {
-    mPlayInBackground = value;
-    //if (!value) {
-    //  abandonAudioFocus();
-    //}
-    promise.resolve(null);
+    runOnPlaybackThread("setPlayInBackground", new Runnable() {
+      @Override
+      public void run() {
+        mPlayInBackground = value;
+        //if (!value) {
+        //  abandonAudioFocus();
+        //}
+        promise.resolve(null);
+      }
+    });
   }
 
   @ReactMethod
   public void setAudioIsEnabled(final Boolean value, final Promise promise) {
-    mEnabled = value;
-    if (!value) {
-      abandonAudioFocus();
-    }
-    promise.resolve(null);
+    runOnPlaybackThread("setAudioIsEnabled", new Runnable() {
+      @Override
+      public void run() {
+        mEnabled = value;
+        if (!value) {
+          abandonAudioFocus();
+        }
+        promise.resolve(null);
+      }
+    });
   }
 
   @ReactMethod
   public void setAudioMode(final ReadableMap map, final Promise promise) {
-    mShouldDuckAudio = map.getBoolean(AUDIO_MODE_SHOULD_DUCK_KEY);
-    if (!mShouldDuckAudio) {
-      mIsDuckingAudio = false;
-      updateDuckStatusForAllPlayersPlaying();
-    }
+    runOnPlaybackThread("setAudioMode", map, new Runnable() {
+      @Override
+      public void run() {
+        mShouldDuckAudio = map.getBoolean(AUDIO_MODE_SHOULD_DUCK_KEY);
+        if (!mShouldDuckAudio) {
+          mIsDuckingAudio = false;
+          updateDuckStatusForAllPlayersPlaying();
+        }
+
+        final int interruptionModeInt = map.getInt(AUDIO_MODE_INTERRUPTION_MODE_KEY);
+        switch (interruptionModeInt) {
+          case 1:
+            mAudioInterruptionMode = AudioInterruptionMode.DO_NOT_MIX;
+          case 2:
+          default:
+            mAudioInterruptionMode = AudioInterruptionMode.DUCK_OTHERS;
+        }
+        promise.resolve(null);
+      }
+    });
+  }
 
-    final int interruptionModeInt = map.getInt(AUDIO_MODE_INTERRUPTION_MODE_KEY);
-    switch (interruptionModeInt) {
-      case 1:
-        mAudioInterruptionMode = AudioInterruptionMode.DO_NOT_MIX;
-      case 2:
-      default:
-        mAudioInterruptionMode = AudioInterruptionMode.DUCK_OTHERS;
+  // Media cache
+
+  @ReactMethod
+  public void setCacheConfig(final ReadableMap config, final Promise promise) {
+    runOnPlaybackThread("setCacheConfig", config, new Runnable() {
+      @Override
+      public void run() {
+        final boolean enabled = !config.hasKey(CACHE_CONFIG_ENABLED_KEY) || config.getBoolean(CACHE_CONFIG_ENABLED_KEY);
+        final long maxBytes = config.hasKey(CACHE_CONFIG_MAX_BYTES_KEY)
+            ? (long) config.getDouble(CACHE_CONFIG_MAX_BYTES_KEY) : MediaCache.DEFAULT_MAX_BYTES;
+        final boolean cacheOnly = config.hasKey(CACHE_CONFIG_CACHE_ONLY_KEY) && config.getBoolean(CACHE_CONFIG_CACHE_ONLY_KEY);
+        try {
+          MediaCache.configure(mReactApplicationContext, enabled, maxBytes, cacheOnly,
+              !mSoundMap.isEmpty() || mMediaPreloader.isPreloading());
+        } catch (final IllegalStateException e) {
+          promise.reject("E_AV_CACHE", e.getMessage());
+          return;
+        }
+        mCacheExecutor.execute(new Runnable() {
+          @Override
+          public void run() {
+            MediaCache.releaseDetachedCache();
+            promise.resolve(null);
+          }
+        });
+      }
+    });
+  }
+
+  @ReactMethod
+  public void clearCache(final Promise promise) {
+    runOnPlaybackThread("clearCache", new Runnable() {
+      @Override
+      public void run() {
+        mCacheExecutor.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              MediaCache.clear(mReactApplicationContext);
+              promise.resolve(null);
+            } catch (final Throwable throwable) {
+              promise.reject("E_AV_CACHE", "Could not clear the media cache.", throwable);
+            }
+          }
+        });
+      }
+    });
+  }
+
+  // Preloading
+
+  private static WritableMap getPreloadResult(final MediaPreloader.Task task) {
+    final WritableMap map = Arguments.createMap();
+    map.putString("uri", task.uri);
+    map.putDouble("bytesCached", task.bytesCached);
+    map.putDouble("requestLength", task.requestLength);
+    map.putBoolean("isCancelled", task.isCancelled());
+    map.putBoolean("isSkipped", task.skipped);
+    if (task.error != null) {
+      map.putString("error", task.error);
     }
-    promise.resolve(null);
+    return map;
+  }
+
+  @ReactMethod
+  public void preloadForSounds(final Integer preloadKey, final ReadableArray sources, final ReadableMap options, final Promise promise) {
+    runOnPlaybackThread("preloadForSounds", sources, new Runnable() {
+      @Override
+      public void run() {
+        final List<String> uris = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+          uris.add(sources.getMap(i).getString(PlayerData.STATUS_URI_KEY_PATH));
+        }
+
+        long lengthBytes = 0;
+        if (options.hasKey(PRELOAD_LENGTH_BYTES_KEY)) {
+          lengthBytes = (long) options.getDouble(PRELOAD_LENGTH_BYTES_KEY);
+        } else if (options.hasKey(PRELOAD_LENGTH_MILLIS_KEY)) {
+          final long estimatedBitrate = options.hasKey(PRELOAD_ESTIMATED_BITRATE_KEY)
+              ? (long) options.getDouble(PRELOAD_ESTIMATED_BITRATE_KEY) : PRELOAD_DEFAULT_ESTIMATED_BITRATE;
+          lengthBytes = MediaPreloader.getLengthBytesForMillis((long) options.getDouble(PRELOAD_LENGTH_MILLIS_KEY), estimatedBitrate);
+        }
+        final int maxConcurrentDownloads = options.hasKey(PRELOAD_MAX_CONCURRENT_DOWNLOADS_KEY)
+            ? options.getInt(PRELOAD_MAX_CONCURRENT_DOWNLOADS_KEY) : PRELOAD_DEFAULT_MAX_CONCURRENT_DOWNLOADS;
+
+        try {
+          mMediaPreloader.preload(preloadKey, uris, lengthBytes, maxConcurrentDownloads, new MediaPreloader.Listener() {
+            @Override
+            public void onPreloadProgress(final MediaPreloader.Task task) {
+              final WritableMap payload = getPreloadResult(task);
+              payload.putInt("preloadKey", task.preloadKey);
+              payload.putBoolean("isComplete", false);
+              sendEvent("didUpdatePreloadProgress", payload);
+            }
+
+            @Override
+            public void onPreloadComplete(final MediaPreloader.Task task) {
+              final WritableMap payload = getPreloadResult(task);
+              payload.putInt("preloadKey", task.preloadKey);
+              payload.putBoolean("isComplete", true);
+              sendEvent("didUpdatePreloadProgress", payload);
+            }
+
+            @Override
+            public void onPreloadBatchComplete(final int preloadKey, final List<MediaPreloader.Task> tasks) {
+              final WritableArray results = Arguments.createArray();
+              for (final MediaPreloader.Task task : tasks) {
+                results.pushMap(getPreloadResult(task));
+              }
+              promise.resolve(results);
+            }
+          });
+        } catch (final IllegalStateException e) {
+          promise.reject("E_AV_PRELOAD", e.getMessage());
+        }
+      }
+    });
+  }
+
+  @ReactMethod
+  public void cancelPreload(final String uri, final Promise promise) {
+    runOnPlaybackThread("cancelPreload", new Runnable() {
+      @Override
+      public void run() {
+        mMediaPreloader.cancel(uri);
+        promise.resolve(null);
+      }
+    });
+  }
+
+  // Status events
+
+  @ReactMethod
+  public void setStatusEventOptions(final ReadableMap options, final Promise promise) {
+    runOnPlaybackThread("setStatusEventOptions", options, new Runnable() {
+      @Override
+      public void run() {
+        final boolean isBatching = options.hasKey(STATUS_EVENT_BATCH_KEY) && options.getBoolean(STATUS_EVENT_BATCH_KEY);
+        final int batchIntervalMillis = options.hasKey(STATUS_EVENT_BATCH_INTERVAL_MILLIS_KEY)
+            ? options.getInt(STATUS_EVENT_BATCH_INTERVAL_MILLIS_KEY) : StatusEventEmitter.DEFAULT_BATCH_INTERVAL_MILLIS;
+        getStatusEventEmitter().setBatching(isBatching, batchIntervalMillis);
+        mShouldSendStatusDeltas = options.hasKey(STATUS_EVENT_DELTA_KEY) && options.getBoolean(STATUS_EVENT_DELTA_KEY);
+        promise.resolve(null);
+      }
+    });
+  }
+
+  public boolean shouldSendStatusDeltas() { // used by PlayerData
+    return mShouldSendStatusDeltas;
+  }
+
+  // Player pool
+
+  @ReactMethod
+  public void configurePlayerPool(final ReadableMap config, final Promise promise) {
+    runOnPlaybackThread("configurePlayerPool", config, new Runnable() {
+      @Override
+      public void run() {
+        final PlayerPool pool = getPlayerPool();
+        if (config.hasKey(PLAYER_POOL_MAX_SIZE_KEY)) {
+          pool.setMaxSize(config.getInt(PLAYER_POOL_MAX_SIZE_KEY));
+        }
+        if (config.hasKey(PLAYER_POOL_WARM_UP_COUNT_KEY)) {
+          pool.warmUp(config.getInt(PLAYER_POOL_WARM_UP_COUNT_KEY));
+        }
+        promise.resolve(null);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void getPlayerPoolStats(final Promise promise) {
+    runOnPlaybackThread("getPlayerPoolStats", new Runnable() {
+      @Override
+      public void run() {
+        promise.resolve(getPlayerPool().getStats());
+      }
+    });
+  }
+
+  // Buffer budget
+
+  @ReactMethod
+  public void configureBufferBudget(final ReadableMap config, final Promise promise) {
+    runOnPlaybackThread("configureBufferBudget", config, new Runnable() {
+      @Override
+      public void run() {
+        if (config.hasKey(BUFFER_BUDGET_MAX_BYTES_KEY)) {
+          mBufferBudget.setMaxBytes((long) config.getDouble(BUFFER_BUDGET_MAX_BYTES_KEY));
+        }
+        promise.resolve(null);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void getBufferBudgetStats(final Promise promise) {
+    runOnPlaybackThread("getBufferBudgetStats", new Runnable() {
+      @Override
+      public void run() {
+        promise.resolve(mBufferBudget.getStats());
+      }
+    });
+  }
+
+  // Idle eviction
+
+  // { maxPreparedCount?: number, maxIdleMillis?: number }, where 0 means no limit.
+  @ReactMethod
+  public void configureIdleEviction(final ReadableMap config, final Promise promise) {
+    runOnPlaybackThread("configureIdleEviction", config, new Runnable() {
+      @Override
+      public void run() {
+        getIdlePlayerEvictor().configure(
+            getOptionalInt(config, IDLE_EVICTION_MAX_PREPARED_COUNT_KEY, 0),
+            getOptionalInt(config, IDLE_EVICTION_MAX_IDLE_MILLIS_KEY, 0));
+        promise.resolve(null);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void getIdleEvictionStats(final Promise promise) {
+    runOnPlaybackThread("getIdleEvictionStats", new Runnable() {
+      @Override
+      public void run() {
+        promise.resolve(getIdlePlayerEvictor().getStats());
+      }
+    });
+  }
+
+  // Sound effects
+
+  @ReactMethod
+  public void configureSoundEffects(final ReadableMap config, final Promise promise) {
+    runOnPlaybackThread("configureSoundEffects", config, new Runnable() {
+      @Override
+      public void run() {
+        if (config.hasKey(SOUND_EFFECTS_CACHE_MAX_BYTES_KEY)) {
+          mDecodedAudioCache.setMaxBytes((long) config.getDouble(SOUND_EFFECTS_CACHE_MAX_BYTES_KEY));
+        }
+        if (config.hasKey(SOUND_EFFECTS_USE_DIRECT_BUFFERS_KEY)) {
+          mDecodedAudioCache.setShouldUseDirectBuffers(config.getBoolean(SOUND_EFFECTS_USE_DIRECT_BUFFERS_KEY));
+        }
+        if (config.hasKey(SOUND_EFFECTS_MAX_VOICES_KEY)) {
+          if (mSoundEffectEngine != null) {
+            promise.reject("E_AV_SOUND_EFFECTS", "maxVoices must be set before the first sound effect is loaded.");
+            return;
+          }
+          mSoundEffectMaxVoices = config.getInt(SOUND_EFFECTS_MAX_VOICES_KEY);
+        }
+        promise.resolve(null);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void getSoundEffectCacheStats(final Promise promise) {
+    runOnPlaybackThread("getSoundEffectCacheStats", new Runnable() {
+      @Override
+      public void run() {
+        promise.resolve(mDecodedAudioCache.getStats());
+      }
+    });
+  }
+
+  @ReactMethod
+  public void clearSoundEffectCache(final Promise promise) {
+    runOnPlaybackThread("clearSoundEffectCache", new Runnable() {
+      @Override
+      public void run() {
+        mDecodedAudioCache.clear();
+        promise.resolve(null);
+      }
+    });
   }
 
   // Unified playback API - Audio
@@ -288,10 +853,14 @@ public class AVModule extends ReactContextBaseJavaModule
     return data;
   }
 
-  private void removeSoundForKey(final Integer key) {
+  void removeSoundForKey(final Integer key) {
     final PlayerData data = mSoundMap.remove(key);
     //data - is SimpleExoPlayer
     if (data != null) {
+      mAudioFocusRegistry.unregister(data.getAudioFocusNode());
+      data.setStatusBufferSlot(-1, -1);
+      mStatusBuffer.free(key);
+      getStatusEventEmitter().discard(key);
       data.release();
       abandonAudioFocusIfUnused();
     }
@@ -299,9 +868,36 @@ public class AVModule extends ReactContextBaseJavaModule
 
   @ReactMethod
   public void loadForSound(final ReadableMap source, final ReadableMap status, final Callback loadSuccess, final Callback loadError) {
+    runOnPlaybackThread("loadForSound", source, new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data = PlayerData.createUnloadedPlayerData(AVModule.this, mReactApplicationContext, source, status);
+        loadPlayerData(data, status, loadSuccess, loadError);
+      }
+    });
+  }
+
+  // Loads all sources into one player which plays them back to back without gaps.
+  @ReactMethod
+  public void loadQueueForSound(final ReadableArray sources, final ReadableMap status, final Callback loadSuccess, final Callback loadError) {
+    runOnPlaybackThread("loadQueueForSound", sources, new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data;
+        try {
+          data = PlayerData.createUnloadedQueuePlayerData(AVModule.this, mReactApplicationContext, sources, status);
+        } catch (final IllegalArgumentException e) {
+          loadError.invoke(e.getMessage());
+          return;
+        }
+        loadPlayerData(data, status, loadSuccess, loadError);
+      }
+    });
+  }
+
+  private void loadPlayerData(final PlayerData data, final ReadableMap status, final Callback loadSuccess, final Callback loadError) {
     final int key = mSoundMapKeyCount++;
 
-    final PlayerData data = PlayerData.createUnloadedPlayerData(this, mReactApplicationContext, source, status);
     data.setErrorListener(new PlayerData.ErrorListener() {
       @Override
       public void onError(final String error) {
@@ -310,6 +906,8 @@ public class AVModule extends ReactContextBaseJavaModule
     });
     //Log.d(TAG, "loadForSound, source: "+ source);
     mSoundMap.put(key, data);
+    mAudioFocusRegistry.register(data.getAudioFocusNode());
+    data.setStatusBufferSlot(key, mStatusBuffer.allocate(key));
     data.load(status, new PlayerData.LoadCompletionListener() {
       @Override
       public void onLoadSuccess(final WritableMap status) {
@@ -320,7 +918,8 @@ public class AVModule extends ReactContextBaseJavaModule
       @Override
       public void onLoadError(final String error) {
         Log.d(TAG, "loadForSound, onLoadError!: "+ error);
-        mSoundMap.remove(key);
+        // Also releases the player and drops its pending status events.
+        removeSoundForKey(key);
         loadError.invoke(error);
       }
     });
@@ -328,58 +927,508 @@ public class AVModule extends ReactContextBaseJavaModule
     data.setStatusUpdateListener(new PlayerData.StatusUpdateListener() {
       @Override
       public void onStatusUpdate(final WritableMap status) {
-        WritableMap payload = Arguments.createMap();
-        payload.putInt("key", key);
-        payload.putMap("status", status);
-        sendEvent("didUpdatePlaybackStatus", payload);
+        final StatusEventEmitter emitter = getStatusEventEmitter();
+        emitter.emit(key, emitter.shouldReplaceWithFullStatus(key, status) ? data.getStatus() : status);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void appendToQueueForSound(final Integer key, final ReadableArray sources, final Promise promise) {
+    runOnPlaybackThread("appendToQueueForSound", sources, new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data = tryGetSoundForKey(key, promise);
+        if (data != null) {
+          try {
+            data.appendToQueue(mReactApplicationContext, sources);
+            promise.resolve(data.getStatus());
+          } catch (final RuntimeException e) {
+            promise.reject("E_AV_QUEUE", e.getMessage());
+          }
+        } // Otherwise, tryGetSoundForKey has already rejected the promise.
+      }
+    });
+  }
+
+  @ReactMethod
+  public void removeFromQueueForSound(final Integer key, final Integer index, final Promise promise) {
+    runOnPlaybackThread("removeFromQueueForSound", new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data = tryGetSoundForKey(key, promise);
+        if (data != null) {
+          try {
+            data.removeFromQueue(index);
+            promise.resolve(data.getStatus());
+          } catch (final RuntimeException e) {
+            promise.reject("E_AV_QUEUE", e.getMessage());
+          }
+        } // Otherwise, tryGetSoundForKey has already rejected the promise.
+      }
+    });
+  }
+
+  @ReactMethod
+  public void moveInQueueForSound(final Integer key, final Integer fromIndex, final Integer toIndex, final Promise promise) {
+    runOnPlaybackThread("moveInQueueForSound", new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data = tryGetSoundForKey(key, promise);
+        if (data != null) {
+          try {
+            data.moveInQueue(fromIndex, toIndex);
+            promise.resolve(data.getStatus());
+          } catch (final RuntimeException e) {
+            promise.reject("E_AV_QUEUE", e.getMessage());
+          }
+        } // Otherwise, tryGetSoundForKey has already rejected the promise.
+      }
+    });
+  }
+
+  @ReactMethod
+  public void skipToQueueIndexForSound(final Integer key, final Integer index, final Double positionMillis, final Promise promise) {
+    runOnPlaybackThread("skipToQueueIndexForSound", new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data = tryGetSoundForKey(key, promise);
+        if (data != null) {
+          try {
+            data.skipToQueueIndex(index, positionMillis != null ? positionMillis.intValue() : null);
+            promise.resolve(data.getStatus());
+          } catch (final RuntimeException e) {
+            promise.reject("E_AV_QUEUE", e.getMessage());
+          }
+        } // Otherwise, tryGetSoundForKey has already rejected the promise.
       }
     });
   }
 
   @ReactMethod
   public void unloadForSound(final Integer key, final Promise promise) {
-    if (tryGetSoundForKey(key, promise) != null) {
-      removeSoundForKey(key);
-      promise.resolve(PlayerData.getUnloadedStatus());
-    } // Otherwise, tryGetSoundForKey has already rejected the promise.
+    runOnPlaybackThread("unloadForSound", new Runnable() {
+      @Override
+      public void run() {
+        if (tryGetSoundForKey(key, promise) != null) {
+          removeSoundForKey(key);
+          promise.resolve(PlayerData.getUnloadedStatus());
+        } // Otherwise, tryGetSoundForKey has already rejected the promise.
+      }
+    });
   }
 
   @ReactMethod
   public void setStatusForSound(final Integer key, final ReadableMap status, final Promise promise) {
-    final PlayerData data = tryGetSoundForKey(key, promise);
-    if (data != null) {
-      data.setStatus(status, promise);
-    } // Otherwise, tryGetSoundForKey has already rejected the promise.
+    runOnPlaybackThread("setStatusForSound", status, new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data = tryGetSoundForKey(key, promise);
+        if (data != null) {
+          data.setStatus(status, promise);
+        } // Otherwise, tryGetSoundForKey has already rejected the promise.
+      }
+    });
   }
 
   @ReactMethod
   public void replaySound(final Integer key, final ReadableMap status, final Promise promise) {
-    final PlayerData data = tryGetSoundForKey(key, promise);
-    if (data != null) {
-      data.setStatus(status, promise);
-    } // Otherwise, tryGetSoundForKey has already rejected the promise.
+    runOnPlaybackThread("replaySound", status, new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data = tryGetSoundForKey(key, promise);
+        if (data != null) {
+          data.setStatus(status, promise);
+        } // Otherwise, tryGetSoundForKey has already rejected the promise.
+      }
+    });
   }
 
   @ReactMethod
   public void getStatusForSound(final Integer key, final Promise promise) {
-    final PlayerData data = tryGetSoundForKey(key, promise);
-    if (data != null) {
-      promise.resolve(data.getStatus());
-    } // Otherwise, tryGetSoundForKey has already rejected the promise.
+    runOnPlaybackThread("getStatusForSound", new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data = tryGetSoundForKey(key, promise);
+        if (data != null) {
+          promise.resolve(data.getStatus());
+        } // Otherwise, tryGetSoundForKey has already rejected the promise.
+      }
+    });
   }
 
+  // Diagnostics
+
+  // { enabled?: boolean, trace?: boolean }
   @ReactMethod
-  public void setErrorCallbackForSound(final Integer key, final Callback callback) {
-    final PlayerData data = tryGetSoundForKey(key, null);
-    if (data != null) {
-      data.setErrorListener(new PlayerData.ErrorListener() {
-        @Override
-        public void onError(final String error) {
-          data.setErrorListener(null); // Can only use callback once.
-          removeSoundForKey(key);
-          callback.invoke(error);
+  public void setInstrumentationOptions(final ReadableMap options, final Promise promise) {
+    runOnPlaybackThread("setInstrumentationOptions", new Runnable() {
+      @Override
+      public void run() {
+        final boolean isEnabled = options.hasKey(INSTRUMENTATION_ENABLED_KEY) && options.getBoolean(INSTRUMENTATION_ENABLED_KEY);
+        final boolean isTracing = options.hasKey(INSTRUMENTATION_TRACE_KEY) && options.getBoolean(INSTRUMENTATION_TRACE_KEY);
+        // Bridge methods run on this looper, which also drives the players.
+        mInstrumentation.addLooperProbe("playbackLooper", getPlaybackLooper());
+        mInstrumentation.addLooperProbe("mainLooper", Looper.getMainLooper());
+        mInstrumentation.setEnabled(isEnabled, isTracing);
+        promise.resolve(null);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void getInstrumentationReport(final Boolean shouldReset, final Promise promise) {
+    runOnPlaybackThread("getInstrumentationReport", new Runnable() {
+      @Override
+      public void run() {
+        promise.resolve(mInstrumentation.getReport(shouldReset != null && shouldReset));
+      }
+    });
+  }
+
+  // Counts of everything a sound holds on to while loaded, which the soak test checks for leaks.
+  WritableMap buildDiagnostics() {
+    final WritableMap diagnostics = Arguments.createMap();
+    diagnostics.putInt("soundCount", mSoundMap.size());
+    diagnostics.putInt("audioEventHandlerCount", mAudioFocusRegistry.getCount());
+    diagnostics.putInt("requiringAudioFocusCount", mAudioFocusRegistry.getRequiringAudioFocusCount());
+    diagnostics.putInt("syncGroupCount", mSyncGroups.size());
+    diagnostics.putInt("scheduledProgressUpdateCount",
+        mProgressUpdateScheduler != null ? mProgressUpdateScheduler.getScheduledCount() : 0);
+    diagnostics.putInt("statusBufferSlotCount", mStatusBuffer.getAllocatedSlotCount());
+    diagnostics.putMap("bufferBudget", mBufferBudget.getStats());
+    if (mPlayerPool != null) {
+      diagnostics.putMap("playerPool", mPlayerPool.getStats());
+    }
+    return diagnostics;
+  }
+
+  // Resolves null for implementations that do not collect metrics.
+  @ReactMethod
+  public void getMetricsForSound(final Integer key, final Promise promise) {
+    runOnPlaybackThread("getMetricsForSound", new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data = tryGetSoundForKey(key, promise);
+        if (data != null) {
+          final PlaybackMetrics metrics = data.getMetrics();
+          if (metrics == null) {
+            promise.resolve(null);
+            return;
+          }
+          final WritableMap map = Arguments.createMap();
+          metrics.writeTo(map);
+          promise.resolve(map);
+        } // Otherwise, tryGetSoundForKey has already rejected the promise.
+      }
+    });
+  }
+
+  @ReactMethod
+  public void setMetricsEventOptions(final ReadableMap options, final Promise promise) {
+    runOnPlaybackThread("setMetricsEventOptions", options, new Runnable() {
+      @Override
+      public void run() {
+        final boolean isEnabled = options.hasKey(METRICS_EVENT_ENABLED_KEY) && options.getBoolean(METRICS_EVENT_ENABLED_KEY);
+        mMetricsEventIntervalMillis = Math.max(1000, options.hasKey(METRICS_EVENT_INTERVAL_MILLIS_KEY)
+            ? options.getInt(METRICS_EVENT_INTERVAL_MILLIS_KEY) : METRICS_EVENT_DEFAULT_INTERVAL_MILLIS);
+        if (mMetricsEventHandler == null) {
+          // Metrics are read on the looper that drives the players.
+          mMetricsEventHandler = new Handler(getPlaybackLooper());
+        }
+        mMetricsEventHandler.removeCallbacks(mMetricsEventRunnable);
+        if (isEnabled) {
+          mMetricsEventHandler.postDelayed(mMetricsEventRunnable, mMetricsEventIntervalMillis);
+        }
+        promise.resolve(null);
+      }
+    });
+  }
+
+  // { sounds: { [key]: metrics }, soundCount, rebufferCount, rebufferDurationMillis, bytesLoaded,
+  //   audioUnderrunCount }, with the totals over all sounds that collect metrics.
+  private WritableMap getAggregatedMetrics() {
+    final WritableMap sounds = Arguments.createMap();
+    int soundCount = 0;
+    int rebufferCount = 0;
+    long rebufferDurationMillis = 0;
+    long bytesLoaded = 0;
+    int audioUnderrunCount = 0;
+    for (final Map.Entry<Integer, PlayerData> entry : mSoundMap.entrySet()) {
+      final PlaybackMetrics metrics = entry.getValue().getMetrics();
+      if (metrics == null) {
+        continue;
+      }
+      final WritableMap map = Arguments.createMap();
+      metrics.writeTo(map);
+      sounds.putMap(String.valueOf(entry.getKey()), map);
+      soundCount++;
+      rebufferCount += metrics.getRebufferCount();
+      rebufferDurationMillis += metrics.getRebufferDurationMillis();
+      bytesLoaded += metrics.getBytesLoaded();
+      audioUnderrunCount += metrics.getAudioUnderrunCount();
+    }
+    final WritableMap result = Arguments.createMap();
+    result.putMap("sounds", sounds);
+    result.putInt("soundCount", soundCount);
+    result.putInt("rebufferCount", rebufferCount);
+    result.putDouble("rebufferDurationMillis", rebufferDurationMillis);
+    result.putDouble("bytesLoaded", bytesLoaded);
+    result.putInt("audioUnderrunCount", audioUnderrunCount);
+    return result;
+  }
+
+  // Batches. Each method resolves with one result per key, in order: { key, status } on success,
+  // or { key, code, error } if the operation failed for that key. A batch runs within a single
+  // message of the playback thread, so no player event is handled halfway through it.
+
+  private static WritableMap getBatchResult(final int key, final WritableMap status) {
+    final WritableMap result = Arguments.createMap();
+    result.putInt(BATCH_KEY_KEY, key);
+    result.putMap(BATCH_STATUS_KEY, status);
+    return result;
+  }
+
+  private static WritableMap getBatchError(final int key, final String code, final String error) {
+    final WritableMap result = Arguments.createMap();
+    result.putInt(BATCH_KEY_KEY, key);
+    result.putString(BATCH_ERROR_CODE_KEY, code);
+    result.putString(BATCH_ERROR_KEY, error);
+    return result;
+  }
+
+  // Applies every status first and reads the resulting statuses afterwards, so that all statuses
+  // reflect the whole batch.
+  @ReactMethod
+  public void setStatusForSounds(final ReadableArray entries, final Promise promise) {
+    runOnPlaybackThread("setStatusForSounds", entries, new Runnable() {
+      @Override
+      public void run() {
+        final String[] errors = new String[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+          final ReadableMap entry = entries.getMap(i);
+          final PlayerData data = mSoundMap.get(entry.getInt(BATCH_KEY_KEY));
+          if (data != null) {
+            errors[i] = data.applyStatus(entry.getMap(BATCH_STATUS_KEY));
+          }
+        }
+
+        final WritableArray results = Arguments.createArray();
+        for (int i = 0; i < entries.size(); i++) {
+          final int key = entries.getMap(i).getInt(BATCH_KEY_KEY);
+          final PlayerData data = mSoundMap.get(key);
+          if (data == null) {
+            results.pushMap(getBatchError(key, "E_AUDIO_NOPLAYER", "Player does not exist."));
+          } else if (errors[i] != null) {
+            results.pushMap(getBatchError(key, "E_AV_SETSTATUS", errors[i]));
+          } else {
+            results.pushMap(getBatchResult(key, data.getStatus()));
+          }
+        }
+        promise.resolve(results);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void getStatusForSounds(final ReadableArray keys, final Promise promise) {
+    runOnPlaybackThread("getStatusForSounds", keys, new Runnable() {
+      @Override
+      public void run() {
+        final WritableArray results = Arguments.createArray();
+        for (int i = 0; i < keys.size(); i++) {
+          final int key = keys.getInt(i);
+          final PlayerData data = mSoundMap.get(key);
+          if (data == null) {
+            results.pushMap(getBatchError(key, "E_AUDIO_NOPLAYER", "Player does not exist."));
+          } else {
+            results.pushMap(getBatchResult(key, data.getStatus()));
+          }
+        }
+        promise.resolve(results);
+      }
+    });
+  }
+
+  // Returns StatusBuffer.FIELD_COUNT numbers per key, back to back, read from the StatusBuffer
+  // without waiting for the playback thread. Unknown and unloaded sounds read as all zeros.
+  @ReactMethod(isBlockingSynchronousMethod = true)
+  public WritableArray getStatusFieldsForSoundsSync(final ReadableArray keys) {
+    final long token = mInstrumentation.begin("getStatusFieldsForSoundsSync");
+    try {
+      final int fieldCount = keys.size() * StatusBuffer.FIELD_COUNT;
+      double[] fields = mStatusFields.get();
+      if (fields == null || fields.length < fieldCount) {
+        fields = new double[Math.max(fieldCount, fields == null ? 0 : fields.length * 2)];
+        mStatusFields.set(fields);
+      }
+      for (int i = 0; i < keys.size(); i++) {
+        mStatusBuffer.read(keys.getInt(i), fields, i * StatusBuffer.FIELD_COUNT);
+      }
+      // The bridge takes ownership of the array it returns, so only that one is allocated.
+      final WritableArray result = Arguments.createArray();
+      for (int i = 0; i < fieldCount; i++) {
+        result.pushDouble(fields[i]);
+      }
+      return result;
+    } finally {
+      mInstrumentation.end("getStatusFieldsForSoundsSync", token, keys);
+    }
+  }
+
+  @ReactMethod
+  public void unloadForSounds(final ReadableArray keys, final Promise promise) {
+    runOnPlaybackThread("unloadForSounds", keys, new Runnable() {
+      @Override
+      public void run() {
+        final WritableArray results = Arguments.createArray();
+        for (int i = 0; i < keys.size(); i++) {
+          final int key = keys.getInt(i);
+          if (mSoundMap.containsKey(key)) {
+            removeSoundForKey(key);
+            results.pushMap(getBatchResult(key, PlayerData.getUnloadedStatus()));
+          } else {
+            results.pushMap(getBatchError(key, "E_AUDIO_NOPLAYER", "Player does not exist."));
+          }
         }
-      });
+        promise.resolve(results);
+      }
+    });
+  }
+
+  // Sync groups
+
+  private static int getOptionalInt(final ReadableMap map, final String key, final int defaultValue) {
+    return map != null && map.hasKey(key) ? map.getInt(key) : defaultValue;
+  }
+
+  // Rejects the promise and returns null if the SyncGroup is not found.
+  private SyncGroup tryGetSyncGroupForKey(final Integer groupKey, final Promise promise) {
+    final SyncGroup group = mSyncGroups.get(groupKey);
+    if (group == null) {
+      promise.reject("E_AV_SYNC_GROUP", "Sync group does not exist.");
     }
+    return group;
+  }
+
+  @ReactMethod
+  public void createSyncGroup(final ReadableArray keys, final ReadableMap options, final Promise promise) {
+    runOnPlaybackThread("createSyncGroup", keys, new Runnable() {
+      @Override
+      public void run() {
+        final List<Integer> groupKeys = new ArrayList<>(keys.size());
+        final List<PlayerData> members = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+          final PlayerData data = tryGetSoundForKey(keys.getInt(i), promise);
+          if (data == null) {
+            return;
+          }
+          groupKeys.add(keys.getInt(i));
+          members.add(data);
+        }
+
+        final int groupKey = mSyncGroupKeyCount++;
+        mSyncGroups.put(groupKey, new SyncGroup(AVModule.this, groupKeys, members,
+            getOptionalInt(options, SYNC_GROUP_MIN_BUFFERED_MILLIS_KEY, SyncGroup.DEFAULT_MIN_BUFFERED_MILLIS),
+            getOptionalInt(options, SYNC_GROUP_DRIFT_THRESHOLD_MILLIS_KEY, SyncGroup.DEFAULT_DRIFT_THRESHOLD_MILLIS),
+            getOptionalInt(options, SYNC_GROUP_DRIFT_CHECK_INTERVAL_MILLIS_KEY, SyncGroup.DEFAULT_DRIFT_CHECK_INTERVAL_MILLIS),
+            getOptionalInt(options, SYNC_GROUP_START_TIMEOUT_MILLIS_KEY, SyncGroup.DEFAULT_START_TIMEOUT_MILLIS)));
+        promise.resolve(groupKey);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void playSyncGroup(final Integer groupKey, final Double positionMillis, final Promise promise) {
+    runOnPlaybackThread("playSyncGroup", new Runnable() {
+      @Override
+      public void run() {
+        final SyncGroup group = tryGetSyncGroupForKey(groupKey, promise);
+        if (group != null) {
+          group.play(positionMillis != null ? positionMillis.intValue() : null, promise);
+        } // Otherwise, tryGetSyncGroupForKey has already rejected the promise.
+      }
+    });
+  }
+
+  @ReactMethod
+  public void pauseSyncGroup(final Integer groupKey, final Promise promise) {
+    runOnPlaybackThread("pauseSyncGroup", new Runnable() {
+      @Override
+      public void run() {
+        final SyncGroup group = tryGetSyncGroupForKey(groupKey, promise);
+        if (group != null) {
+          group.pause(promise);
+        } // Otherwise, tryGetSyncGroupForKey has already rejected the promise.
+      }
+    });
+  }
+
+  @ReactMethod
+  public void setPositionForSyncGroup(final Integer groupKey, final Double positionMillis, final Promise promise) {
+    runOnPlaybackThread("setPositionForSyncGroup", new Runnable() {
+      @Override
+      public void run() {
+        if (positionMillis == null) {
+          promise.reject("E_AV_SETSTATUS", "Cannot set a null position.");
+          return;
+        }
+        final SyncGroup group = tryGetSyncGroupForKey(groupKey, promise);
+        if (group != null) {
+          group.setPosition(positionMillis.intValue(), promise);
+        } // Otherwise, tryGetSyncGroupForKey has already rejected the promise.
+      }
+    });
+  }
+
+  @ReactMethod
+  public void setRateForSyncGroup(final Integer groupKey, final Double rate, final Boolean shouldCorrectPitch, final Promise promise) {
+    runOnPlaybackThread("setRateForSyncGroup", new Runnable() {
+      @Override
+      public void run() {
+        if (rate == null) {
+          promise.reject("E_AV_SETSTATUS", "Cannot set a null rate.");
+          return;
+        }
+        final SyncGroup group = tryGetSyncGroupForKey(groupKey, promise);
+        if (group != null) {
+          group.setRate(rate.floatValue(), shouldCorrectPitch != null && shouldCorrectPitch, promise);
+        } // Otherwise, tryGetSyncGroupForKey has already rejected the promise.
+      }
+    });
+  }
+
+  @ReactMethod
+  public void releaseSyncGroup(final Integer groupKey, final Promise promise) {
+    runOnPlaybackThread("releaseSyncGroup", new Runnable() {
+      @Override
+      public void run() {
+        final SyncGroup group = mSyncGroups.remove(groupKey);
+        if (group != null) {
+          group.release();
+        }
+        promise.resolve(null);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void setErrorCallbackForSound(final Integer key, final Callback callback) {
+    runOnPlaybackThread("setErrorCallbackForSound", new Runnable() {
+      @Override
+      public void run() {
+        final PlayerData data = tryGetSoundForKey(key, null);
+        if (data != null) {
+          data.setErrorListener(new PlayerData.ErrorListener() {
+            @Override
+            public void onError(final String error) {
+              data.setErrorListener(null); // Can only use callback once.
+              removeSoundForKey(key);
+              callback.invoke(error);
+            }
+          });
+        }
+      }
+    });
   }
 }
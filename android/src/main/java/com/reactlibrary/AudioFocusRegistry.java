@@ -0,0 +1,135 @@
+package com.reactlibrary;
+
+// Registered AudioEventHandlers, kept in intrusive linked lists so that registering, unregistering
+// and updating a handler is O(1) and nothing is allocated when the handlers are visited. Besides the
+// list of all handlers, the registry keeps a second list and a count of the handlers that required
+// audio focus when they last reported their state through update().
+//
+// Must only be used from the thread that drives playback.
+public class AudioFocusRegistry {
+
+  // Owned by one handler for its whole lifetime.
+  public static final class Node {
+    final AudioEventHandler handler;
+    boolean isRegistered = false;
+    boolean requiresAudioFocus = false;
+    Node previous = null;
+    Node next = null;
+    Node previousRequiringAudioFocus = null;
+    Node nextRequiringAudioFocus = null;
+
+    public Node(final AudioEventHandler handler) {
+      this.handler = handler;
+    }
+  }
+
+  interface Visitor {
+    void visit(final AudioEventHandler handler);
+  }
+
+  private Node mHead = null;
+  private Node mHeadRequiringAudioFocus = null;
+  private int mCount = 0;
+  private int mRequiringAudioFocusCount = 0;
+
+  void register(final Node node) {
+    if (node.isRegistered) {
+      return;
+    }
+    node.isRegistered = true;
+    node.previous = null;
+    node.next = mHead;
+    if (mHead != null) {
+      mHead.previous = node;
+    }
+    mHead = node;
+    mCount++;
+    update(node);
+  }
+
+  void unregister(final Node node) {
+    if (!node.isRegistered) {
+      return;
+    }
+    setRequiresAudioFocus(node, false);
+    if (node.previous != null) {
+      node.previous.next = node.next;
+    } else {
+      mHead = node.next;
+    }
+    if (node.next != null) {
+      node.next.previous = node.previous;
+    }
+    node.previous = null;
+    node.next = null;
+    node.isRegistered = false;
+    mCount--;
+  }
+
+  // Polls the handler once and moves it in or out of the list of handlers requiring audio focus.
+  void update(final Node node) {
+    if (node.isRegistered) {
+      setRequiresAudioFocus(node, node.handler.requiresAudioFocus());
+    }
+  }
+
+  private void setRequiresAudioFocus(final Node node, final boolean requiresAudioFocus) {
+    if (node.requiresAudioFocus == requiresAudioFocus) {
+      return;
+    }
+    node.requiresAudioFocus = requiresAudioFocus;
+    if (requiresAudioFocus) {
+      node.previousRequiringAudioFocus = null;
+      node.nextRequiringAudioFocus = mHeadRequiringAudioFocus;
+      if (mHeadRequiringAudioFocus != null) {
+        mHeadRequiringAudioFocus.previousRequiringAudioFocus = node;
+      }
+      mHeadRequiringAudioFocus = node;
+      mRequiringAudioFocusCount++;
+    } else {
+      if (node.previousRequiringAudioFocus != null) {
+        node.previousRequiringAudioFocus.nextRequiringAudioFocus = node.nextRequiringAudioFocus;
+      } else {
+        mHeadRequiringAudioFocus = node.nextRequiringAudioFocus;
+      }
+      if (node.nextRequiringAudioFocus != null) {
+        node.nextRequiringAudioFocus.previousRequiringAudioFocus = node.previousRequiringAudioFocus;
+      }
+      node.previousRequiringAudioFocus = null;
+      node.nextRequiringAudioFocus = null;
+      mRequiringAudioFocusCount--;
+    }
+  }
+
+  boolean isAudioFocusRequired() {
+    return mRequiringAudioFocusCount > 0;
+  }
+
+  int getCount() {
+    return mCount;
+  }
+
+  int getRequiringAudioFocusCount() {
+    return mRequiringAudioFocusCount;
+  }
+
+  // The visitor may unregister or update the visited handler, but no other one.
+  void forEach(final Visitor visitor) {
+    Node node = mHead;
+    while (node != null) {
+      final Node next = node.next;
+      visitor.visit(node.handler);
+      node = next;
+    }
+  }
+
+  // Same as forEach, for the handlers that required audio focus when the visit started.
+  void forEachRequiringAudioFocus(final Visitor visitor) {
+    Node node = mHeadRequiringAudioFocus;
+    while (node != null) {
+      final Node next = node.nextRequiringAudioFocus;
+      visitor.visit(node.handler);
+      node = next;
+    }
+  }
+}
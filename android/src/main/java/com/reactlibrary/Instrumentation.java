@@ -0,0 +1,231 @@
+package com.reactlibrary;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Latency histograms of the bridge methods, the emitted events and the queues of the threads that
+// run them. Each operation, named after its method or event, records its execution time, its
+// queue delay where it is known and the number of values in its payload. Switched off, begin()
+// returns 0 after reading one volatile flag and end() returns right away.
+//
+// The queue delay of a looper is measured by a probe that posts itself every
+// LOOPER_PROBE_INTERVAL_MILLIS and records how late it runs, i.e. how long a bridge method or
+// player callback queued on that looper would wait behind other work.
+final class Instrumentation {
+
+  private static final long LOOPER_PROBE_INTERVAL_MILLIS = 100;
+
+  private static final class Operation {
+    final LatencyHistogram queueDelayMicros = new LatencyHistogram();
+    final LatencyHistogram executionMicros = new LatencyHistogram();
+    final LatencyHistogram payloadValues = new LatencyHistogram();
+  }
+
+  private final class LooperProbe implements Runnable {
+    final String name;
+    final Handler handler;
+    long expectedUptimeMillis = 0;
+
+    LooperProbe(final String name, final Looper looper) {
+      this.name = name;
+      this.handler = new Handler(looper);
+    }
+
+    void start() {
+      handler.removeCallbacks(this);
+      expectedUptimeMillis = SystemClock.uptimeMillis() + LOOPER_PROBE_INTERVAL_MILLIS;
+      handler.postDelayed(this, LOOPER_PROBE_INTERVAL_MILLIS);
+    }
+
+    void stop() {
+      handler.removeCallbacks(this);
+    }
+
+    @Override
+    public void run() {
+      final long nowUptimeMillis = SystemClock.uptimeMillis();
+      recordQueueDelay(name, (nowUptimeMillis - expectedUptimeMillis) * 1000);
+      if (mIsEnabled) {
+        expectedUptimeMillis = nowUptimeMillis + LOOPER_PROBE_INTERVAL_MILLIS;
+        handler.postDelayed(this, LOOPER_PROBE_INTERVAL_MILLIS);
+      }
+    }
+  }
+
+  private volatile boolean mIsEnabled = false;
+  private volatile boolean mIsTracing = false;
+  private final Map<String, Operation> mOperations = new HashMap<>();
+  private final Map<Looper, LooperProbe> mLooperProbes = new HashMap<>();
+
+  // Probes are only started and stopped from the thread of the bridge methods.
+  void setEnabled(final boolean isEnabled, final boolean isTracing) {
+    mIsEnabled = isEnabled;
+    mIsTracing = isEnabled && isTracing;
+    for (final LooperProbe probe : mLooperProbes.values()) {
+      if (isEnabled) {
+        probe.start();
+      } else {
+        probe.stop();
+      }
+    }
+  }
+
+  boolean isEnabled() {
+    return mIsEnabled;
+  }
+
+  void addLooperProbe(final String name, final Looper looper) {
+    if (mLooperProbes.containsKey(looper)) {
+      return;
+    }
+    final LooperProbe probe = new LooperProbe(name, looper);
+    mLooperProbes.put(looper, probe);
+    if (mIsEnabled) {
+      probe.start();
+    }
+  }
+
+  private Operation getOperation(final String name) {
+    synchronized (mOperations) {
+      Operation operation = mOperations.get(name);
+      if (operation == null) {
+        operation = new Operation();
+        mOperations.put(name, operation);
+      }
+      return operation;
+    }
+  }
+
+  // Returns the token to pass to end(), 0 if switched off. The lowest bit of the token tells
+  // whether a trace section was begun, so that tracing can be switched in between.
+  long begin(final String name) {
+    if (!mIsEnabled) {
+      return 0;
+    }
+    long token = System.nanoTime() & ~1L;
+    if (mIsTracing) {
+      Trace.beginSection(name);
+      token |= 1;
+    }
+    return token != 0 ? token : 2;
+  }
+
+  void end(final String name, final long token) {
+    end(name, token, 0);
+  }
+
+  void end(final String name, final long token, final ReadableMap payload) {
+    if (token != 0) {
+      end(name, token, getPayloadValueCount(payload));
+    }
+  }
+
+  void end(final String name, final long token, final ReadableArray payload) {
+    if (token != 0) {
+      end(name, token, getPayloadValueCount(payload));
+    }
+  }
+
+  void end(final String name, final long token, final int payloadValueCount) {
+    if (token == 0) {
+      return;
+    }
+    final long executionMicros = (System.nanoTime() - (token & ~1L)) / 1000;
+    if ((token & 1) != 0) {
+      Trace.endSection();
+    }
+    final Operation operation = getOperation(name);
+    operation.executionMicros.record(executionMicros);
+    operation.payloadValues.record(payloadValueCount);
+  }
+
+  void recordQueueDelay(final String name, final long queueDelayMicros) {
+    if (mIsEnabled) {
+      getOperation(name).queueDelayMicros.record(queueDelayMicros);
+    }
+  }
+
+  // The number of leaf values, as a measure of the serialization work of a payload.
+  static int getPayloadValueCount(final ReadableMap map) {
+    if (map == null) {
+      return 0;
+    }
+    int count = 0;
+    final ReadableMapKeySetIterator iterator = map.keySetIterator();
+    while (iterator.hasNextKey()) {
+      final String key = iterator.nextKey();
+      switch (map.getType(key)) {
+        case Map:
+          count += getPayloadValueCount(map.getMap(key));
+          break;
+        case Array:
+          count += getPayloadValueCount(map.getArray(key));
+          break;
+        default:
+          count++;
+      }
+    }
+    return count;
+  }
+
+  static int getPayloadValueCount(final ReadableArray array) {
+    if (array == null) {
+      return 0;
+    }
+    int count = 0;
+    for (int i = 0; i < array.size(); i++) {
+      switch (array.getType(i)) {
+        case Map:
+          count += getPayloadValueCount(array.getMap(i));
+          break;
+        case Array:
+          count += getPayloadValueCount(array.getArray(i));
+          break;
+        default:
+          count++;
+      }
+    }
+    return count;
+  }
+
+  // { enabled, tracing, operations: { [name]: { queueDelayMicros, executionMicros, payloadValues } } }
+  // with the histograms as described in LatencyHistogram.toMap(), leaving out empty ones.
+  WritableMap getReport(final boolean shouldReset) {
+    final WritableMap operations = Arguments.createMap();
+    synchronized (mOperations) {
+      for (final Map.Entry<String, Operation> entry : mOperations.entrySet()) {
+        final Operation operation = entry.getValue();
+        final WritableMap map = Arguments.createMap();
+        if (operation.queueDelayMicros.getCount() > 0) {
+          map.putMap("queueDelayMicros", operation.queueDelayMicros.toMap());
+        }
+        if (operation.executionMicros.getCount() > 0) {
+          map.putMap("executionMicros", operation.executionMicros.toMap());
+          map.putMap("payloadValues", operation.payloadValues.toMap());
+        }
+        operations.putMap(entry.getKey(), map);
+        if (shouldReset) {
+          operation.queueDelayMicros.reset();
+          operation.executionMicros.reset();
+          operation.payloadValues.reset();
+        }
+      }
+    }
+    final WritableMap report = Arguments.createMap();
+    report.putBoolean("enabled", mIsEnabled);
+    report.putBoolean("tracing", mIsTracing);
+    report.putMap("operations", operations);
+    return report;
+  }
+}
@@ -0,0 +1,96 @@
+package com.reactlibrary;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+// Fixed-memory histogram of non-negative values with logarithmic buckets. Every power of two is
+// split into two buckets, so a recorded value is reported at most about 41% above itself, and
+// recording never allocates.
+final class LatencyHistogram {
+
+  private static final int BUCKET_COUNT = 64;
+
+  private final long[] mCounts = new long[BUCKET_COUNT];
+  private long mCount = 0;
+  private long mSum = 0;
+  private long mMax = 0;
+
+  private static int getBucketIndex(final long value) {
+    if (value <= 1) {
+      return 0;
+    }
+    final int log2 = 63 - Long.numberOfLeadingZeros(value);
+    final int half = ((value >>> (log2 - 1)) & 1L) != 0 ? 1 : 0;
+    return Math.min(BUCKET_COUNT - 1, 2 * log2 + half);
+  }
+
+  // The largest value that lands in the bucket.
+  private static long getBucketUpperBound(final int index) {
+    if (index == 0) {
+      return 1;
+    }
+    final int log2 = index / 2;
+    final long base = 1L << log2;
+    return index % 2 == 0 ? base + base / 2 - 1 : 2 * base - 1;
+  }
+
+  synchronized void record(final long value) {
+    final long clampedValue = Math.max(0, value);
+    mCounts[getBucketIndex(clampedValue)]++;
+    mCount++;
+    mSum += clampedValue;
+    mMax = Math.max(mMax, clampedValue);
+  }
+
+  synchronized void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      mCounts[i] = 0;
+    }
+    mCount = 0;
+    mSum = 0;
+    mMax = 0;
+  }
+
+  synchronized long getCount() {
+    return mCount;
+  }
+
+  private long getPercentile(final double percentile) {
+    final long rank = (long) Math.ceil(mCount * percentile);
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += mCounts[i];
+      if (seen >= rank) {
+        return Math.min(getBucketUpperBound(i), mMax);
+      }
+    }
+    return mMax;
+  }
+
+  // { count, mean, p50, p90, p99, max, buckets: [[upperBound, count], ...] }, with the buckets
+  // that hold values only.
+  synchronized WritableMap toMap() {
+    final WritableMap map = Arguments.createMap();
+    map.putDouble("count", mCount);
+    if (mCount == 0) {
+      return map;
+    }
+    map.putDouble("mean", (double) mSum / mCount);
+    map.putDouble("p50", getPercentile(0.5));
+    map.putDouble("p90", getPercentile(0.9));
+    map.putDouble("p99", getPercentile(0.99));
+    map.putDouble("max", mMax);
+    final WritableArray buckets = Arguments.createArray();
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      if (mCounts[i] > 0) {
+        final WritableArray bucket = Arguments.createArray();
+        bucket.pushDouble(getBucketUpperBound(i));
+        bucket.pushDouble(mCounts[i]);
+        buckets.pushArray(bucket);
+      }
+    }
+    map.putArray("buckets", buckets);
+    return map;
+  }
+}
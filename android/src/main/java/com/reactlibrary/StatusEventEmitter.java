@@ -0,0 +1,134 @@
+package com.reactlibrary;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Sends playback status updates to JS. In batched mode the updates of all sounds produced within
+// one window are collected and sent as a single event keyed by sound key, instead of one bridge
+// message per sound and update.
+//
+// Must only be used from the thread of its looper.
+class StatusEventEmitter {
+  static final String STATUS_EVENT_NAME = "didUpdatePlaybackStatus";
+  static final String STATUS_BATCH_EVENT_NAME = "didUpdatePlaybackStatusBatch";
+  static final int DEFAULT_BATCH_INTERVAL_MILLIS = 16;
+
+  private static final String DID_JUST_FINISH_KEY = "didJustFinish";
+  private static final String IS_DELTA_KEY = "isDelta";
+
+  private final ReactApplicationContext mReactApplicationContext;
+  private final Instrumentation mInstrumentation;
+  private final Handler mHandler;
+  // Keeps the order in which sounds first updated within the window.
+  private final Map<Integer, WritableMap> mPendingStatuses = new LinkedHashMap<>();
+
+  private boolean mIsBatching = false;
+  private boolean mIsFlushScheduled = false;
+  private long mFirstPendingUptimeMillis = 0;
+  private int mBatchIntervalMillis = DEFAULT_BATCH_INTERVAL_MILLIS;
+
+  private final Runnable mFlushRunnable = new Runnable() {
+    @Override
+    public void run() {
+      flush();
+    }
+  };
+
+  StatusEventEmitter(final ReactApplicationContext reactApplicationContext, final Instrumentation instrumentation,
+                     final Looper looper) {
+    mReactApplicationContext = reactApplicationContext;
+    mInstrumentation = instrumentation;
+    mHandler = new Handler(looper);
+  }
+
+  void setBatching(final boolean isBatching, final int batchIntervalMillis) {
+    mBatchIntervalMillis = Math.max(0, batchIntervalMillis);
+    if (mIsBatching && !isBatching) {
+      flush();
+    }
+    mIsBatching = isBatching;
+  }
+
+  void emit(final int key, final WritableMap status) {
+    if (!mIsBatching) {
+      final WritableMap payload = Arguments.createMap();
+      payload.putInt("key", key);
+      payload.putMap("status", status);
+      sendEvent(STATUS_EVENT_NAME, payload);
+      return;
+    }
+
+    // A newer status replaces the pending one of the same sound, unless the pending one carries
+    // didJustFinish, which JS must receive exactly once.
+    if (hasPendingDidJustFinish(key)) {
+      flush();
+    }
+    mPendingStatuses.put(key, status);
+    if (!mIsFlushScheduled) {
+      mIsFlushScheduled = true;
+      mFirstPendingUptimeMillis = SystemClock.uptimeMillis();
+      mHandler.postDelayed(mFlushRunnable, mBatchIntervalMillis);
+    }
+  }
+
+  // A delta only carries what changed since the last status handed to JS, which may be newer than
+  // the pending status of the sound, e.g. one resolved in a promise meanwhile. Merged into the
+  // pending status, it would leave JS with stale fields wherever the two differ, so the sender has
+  // to emit a fresh full status instead.
+  boolean shouldReplaceWithFullStatus(final int key, final WritableMap status) {
+    return mIsBatching
+        && status.hasKey(IS_DELTA_KEY) && status.getBoolean(IS_DELTA_KEY)
+        && mPendingStatuses.containsKey(key)
+        && !hasPendingDidJustFinish(key);
+  }
+
+  private boolean hasPendingDidJustFinish(final int key) {
+    final WritableMap pendingStatus = mPendingStatuses.get(key);
+    return pendingStatus != null && pendingStatus.hasKey(DID_JUST_FINISH_KEY)
+        && pendingStatus.getBoolean(DID_JUST_FINISH_KEY);
+  }
+
+  // Drops a pending status, e.g. after the sound has been unloaded.
+  void discard(final int key) {
+    mPendingStatuses.remove(key);
+  }
+
+  void flush() {
+    mHandler.removeCallbacks(mFlushRunnable);
+    mIsFlushScheduled = false;
+    if (mPendingStatuses.isEmpty()) {
+      return;
+    }
+    final WritableMap statuses = Arguments.createMap();
+    for (final Map.Entry<Integer, WritableMap> entry : mPendingStatuses.entrySet()) {
+      statuses.putMap(String.valueOf(entry.getKey()), entry.getValue());
+    }
+    mPendingStatuses.clear();
+
+    final WritableMap payload = Arguments.createMap();
+    payload.putMap("statuses", statuses);
+    // How long the oldest status of the batch waited for the window to close.
+    mInstrumentation.recordQueueDelay(STATUS_BATCH_EVENT_NAME,
+        (SystemClock.uptimeMillis() - mFirstPendingUptimeMillis) * 1000);
+    sendEvent(STATUS_BATCH_EVENT_NAME, payload);
+  }
+
+  private void sendEvent(final String eventName, final WritableMap params) {
+    final long token = mInstrumentation.begin(eventName);
+    // Counted before emitting, which hands the map over to the bridge.
+    final int payloadValueCount = token != 0 ? Instrumentation.getPayloadValueCount(params) : 0;
+    mReactApplicationContext
+        .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+        .emit(eventName, params);
+    mInstrumentation.end(eventName, token, payloadValueCount);
+  }
+}
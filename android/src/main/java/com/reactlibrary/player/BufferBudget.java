@@ -0,0 +1,54 @@
+package com.reactlibrary.player;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+
+// One allocator shared by the load controls of all players, so that the media buffered by all
+// sounds together stays within a single budget. Allocations are only kept for reuse up to the
+// budget, and unused ones are trimmed whenever a player stops.
+//
+// Thread-safe: the load controls use it from the internal playback threads of their players.
+public class BufferBudget {
+
+  public static final long DEFAULT_MAX_BYTES = 32 * 1024 * 1024;
+
+  private final DefaultAllocator mAllocator = new DefaultAllocator(false, C.DEFAULT_BUFFER_SEGMENT_SIZE);
+  private volatile long mMaxBytes;
+
+  public BufferBudget(final long maxBytes) {
+    setMaxBytes(maxBytes);
+  }
+
+  // Players that already buffered more keep their buffers, but do not load more until enough of
+  // the budget is free again.
+  public void setMaxBytes(final long maxBytes) {
+    mMaxBytes = Math.max(C.DEFAULT_BUFFER_SEGMENT_SIZE, maxBytes);
+    mAllocator.setTargetBufferSize((int) Math.min(Integer.MAX_VALUE, mMaxBytes));
+  }
+
+  public long getMaxBytes() {
+    return mMaxBytes;
+  }
+
+  Allocator getAllocator() {
+    return mAllocator;
+  }
+
+  boolean isExhausted() {
+    return mAllocator.getTotalBytesAllocated() >= mMaxBytes;
+  }
+
+  void trim() {
+    mAllocator.trim();
+  }
+
+  public WritableMap getStats() {
+    final WritableMap map = Arguments.createMap();
+    map.putDouble("maxBytes", mMaxBytes);
+    map.putDouble("allocatedBytes", mAllocator.getTotalBytesAllocated());
+    return map;
+  }
+}
@@ -0,0 +1,166 @@
+package com.reactlibrary.player;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.DefaultLoadControl;
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.util.Util;
+
+// Like DefaultLoadControl with size thresholds, except that the size threshold is the shared
+// BufferBudget of all players instead of a target of each player. Below the minimum buffer a
+// player still loads while the budget is exhausted, so that paused sounds holding the budget
+// cannot stall a playing one.
+//
+// Used from the internal playback thread of its player.
+class BufferLoadControl implements LoadControl {
+
+  static final String MIN_BUFFER_MILLIS_KEY_PATH = "minBufferMillis";
+  static final String MAX_BUFFER_MILLIS_KEY_PATH = "maxBufferMillis";
+  static final String BUFFER_FOR_PLAYBACK_MILLIS_KEY_PATH = "bufferForPlaybackMillis";
+  static final String BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MILLIS_KEY_PATH = "bufferForPlaybackAfterRebufferMillis";
+  static final String BACK_BUFFER_MILLIS_KEY_PATH = "backBufferMillis";
+
+  // Loading continues below this buffer regardless of the budget, as in DefaultLoadControl.
+  private static final long MIN_BUFFER_FLOOR_US = 500000;
+
+  // Immutable buffer durations of a player.
+  static final class Settings {
+    static final Settings DEFAULT = new Settings(
+        DefaultLoadControl.DEFAULT_MIN_BUFFER_MS,
+        DefaultLoadControl.DEFAULT_MAX_BUFFER_MS,
+        DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS,
+        DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS,
+        DefaultLoadControl.DEFAULT_BACK_BUFFER_DURATION_MS);
+
+    final int minBufferMillis;
+    final int maxBufferMillis;
+    final int bufferForPlaybackMillis;
+    final int bufferForPlaybackAfterRebufferMillis;
+    final int backBufferMillis;
+
+    Settings(final int minBufferMillis, final int maxBufferMillis, final int bufferForPlaybackMillis,
+             final int bufferForPlaybackAfterRebufferMillis, final int backBufferMillis) {
+      this.minBufferMillis = Math.max(0, minBufferMillis);
+      this.maxBufferMillis = Math.max(this.minBufferMillis, maxBufferMillis);
+      this.bufferForPlaybackMillis = Math.max(0, Math.min(bufferForPlaybackMillis, this.minBufferMillis));
+      this.bufferForPlaybackAfterRebufferMillis =
+          Math.max(0, Math.min(bufferForPlaybackAfterRebufferMillis, this.minBufferMillis));
+      this.backBufferMillis = Math.max(0, backBufferMillis);
+    }
+
+    // Null if the status does not set any buffer duration, so that the sound can use a pooled
+    // player with the default ones.
+    static Settings fromStatus(final ReadableMap status) {
+      if (status == null
+          || !(status.hasKey(MIN_BUFFER_MILLIS_KEY_PATH)
+          || status.hasKey(MAX_BUFFER_MILLIS_KEY_PATH)
+          || status.hasKey(BUFFER_FOR_PLAYBACK_MILLIS_KEY_PATH)
+          || status.hasKey(BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MILLIS_KEY_PATH)
+          || status.hasKey(BACK_BUFFER_MILLIS_KEY_PATH))) {
+        return null;
+      }
+      return new Settings(
+          getMillis(status, MIN_BUFFER_MILLIS_KEY_PATH, DEFAULT.minBufferMillis),
+          getMillis(status, MAX_BUFFER_MILLIS_KEY_PATH, DEFAULT.maxBufferMillis),
+          getMillis(status, BUFFER_FOR_PLAYBACK_MILLIS_KEY_PATH, DEFAULT.bufferForPlaybackMillis),
+          getMillis(status, BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MILLIS_KEY_PATH, DEFAULT.bufferForPlaybackAfterRebufferMillis),
+          getMillis(status, BACK_BUFFER_MILLIS_KEY_PATH, DEFAULT.backBufferMillis));
+    }
+
+    private static int getMillis(final ReadableMap status, final String key, final int defaultMillis) {
+      return status.hasKey(key) ? (int) status.getDouble(key) : defaultMillis;
+    }
+  }
+
+  private final BufferBudget mBudget;
+  private final long mMinBufferUs;
+  private final long mMaxBufferUs;
+  private final long mBufferForPlaybackUs;
+  private final long mBufferForPlaybackAfterRebufferUs;
+  private final long mBackBufferDurationUs;
+  private boolean mIsLoading = false;
+
+  BufferLoadControl(final BufferBudget budget, final Settings settings) {
+    mBudget = budget;
+    mMinBufferUs = C.msToUs(settings.minBufferMillis);
+    mMaxBufferUs = C.msToUs(settings.maxBufferMillis);
+    mBufferForPlaybackUs = C.msToUs(settings.bufferForPlaybackMillis);
+    mBufferForPlaybackAfterRebufferUs = C.msToUs(settings.bufferForPlaybackAfterRebufferMillis);
+    mBackBufferDurationUs = C.msToUs(settings.backBufferMillis);
+  }
+
+  @Override
+  public void onPrepared() {
+    mIsLoading = false;
+  }
+
+  @Override
+  public void onTracksSelected(final Renderer[] renderers, final TrackGroupArray trackGroups,
+                               final TrackSelectionArray trackSelections) {
+  }
+
+  @Override
+  public void onStopped() {
+    mIsLoading = false;
+    mBudget.trim();
+  }
+
+  @Override
+  public void onReleased() {
+    mIsLoading = false;
+    mBudget.trim();
+  }
+
+  @Override
+  public Allocator getAllocator() {
+    return mBudget.getAllocator();
+  }
+
+  @Override
+  public long getBackBufferDurationUs() {
+    return mBackBufferDurationUs;
+  }
+
+  @Override
+  public boolean retainBackBufferFromKeyframe() {
+    return false;
+  }
+
+  @Override
+  public boolean shouldContinueLoading(final long playbackPositionUs, final long bufferedDurationUs,
+                                       final float playbackSpeed) {
+    final boolean isBudgetExhausted = mBudget.isExhausted();
+    long minBufferUs = mMinBufferUs;
+    if (playbackSpeed > 1) {
+      // The buffered media plays out faster, so more of it is needed for the same duration.
+      minBufferUs = Math.min(Util.getMediaDurationForPlayoutDuration(minBufferUs, playbackSpeed), mMaxBufferUs);
+    }
+    minBufferUs = Math.max(minBufferUs, MIN_BUFFER_FLOOR_US);
+    if (bufferedDurationUs < MIN_BUFFER_FLOOR_US) {
+      mIsLoading = true;
+    } else if (bufferedDurationUs < minBufferUs) {
+      mIsLoading = !isBudgetExhausted;
+    } else if (bufferedDurationUs >= mMaxBufferUs || isBudgetExhausted) {
+      mIsLoading = false;
+    } // Otherwise, keeps loading until the maximum buffer, or pauses until the minimum one.
+    return mIsLoading;
+  }
+
+  @Override
+  public boolean shouldStartPlayback(final long bufferedDurationUs, final float playbackSpeed,
+                                     final boolean rebuffering, final long targetLiveOffsetUs) {
+    final long playoutDurationUs = Util.getPlayoutDurationForMediaDuration(bufferedDurationUs, playbackSpeed);
+    long minBufferDurationUs = rebuffering ? mBufferForPlaybackAfterRebufferUs : mBufferForPlaybackUs;
+    if (targetLiveOffsetUs != C.TIME_UNSET) {
+      minBufferDurationUs = Math.min(targetLiveOffsetUs / 2, minBufferDurationUs);
+    }
+    // With the budget exhausted the buffer cannot grow much more, so playback starts with it.
+    return minBufferDurationUs <= 0
+        || playoutDurationUs >= minBufferDurationUs
+        || mBudget.isExhausted();
+  }
+}
@@ -39,7 +39,7 @@ public class DataSourceUtil {
         DataSourceUtil.userAgent = userAgent;
     }
 
-    public static String getUserAgent(ReactContext context) {
+    public static String getUserAgent(Context context) {
         if (userAgent == null) {
             userAgent = Util.getUserAgent(context, "yourApplicationName");
         }
@@ -0,0 +1,107 @@
+package com.reactlibrary.player;
+
+import android.net.Uri;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Byte-bounded LRU cache of decoded clips, so that loading the same sound effect again skips
+// decoding. Clips are keyed by uri and output sample rate, and can be stored in direct buffers to
+// keep them off the Java heap. Clips still in use by sounds stay alive after being evicted and are
+// simply decoded again the next time they are needed.
+//
+// All methods are thread-safe.
+public class DecodedAudioCache {
+
+  public static final long DEFAULT_MAX_BYTES = 8 * 1024 * 1024;
+
+  // Access order, so the eldest entry is the least recently used.
+  private final LinkedHashMap<String, DecodedClip> mClips = new LinkedHashMap<>(16, 0.75f, true);
+  private long mMaxBytes;
+  private long mSizeBytes = 0;
+  private boolean mShouldUseDirectBuffers = false;
+
+  private int mHitCount = 0;
+  private int mMissCount = 0;
+  private int mEvictionCount = 0;
+
+  public DecodedAudioCache(final long maxBytes) {
+    mMaxBytes = maxBytes;
+  }
+
+  static String getKey(final Uri uri, final int sampleRate) {
+    return uri.toString() + "@" + sampleRate;
+  }
+
+  public synchronized void setMaxBytes(final long maxBytes) {
+    mMaxBytes = Math.max(0, maxBytes);
+    trimToSize();
+  }
+
+  // Only affects clips decoded from now on.
+  public synchronized void setShouldUseDirectBuffers(final boolean shouldUseDirectBuffers) {
+    mShouldUseDirectBuffers = shouldUseDirectBuffers;
+  }
+
+  synchronized boolean shouldUseDirectBuffers() {
+    return mShouldUseDirectBuffers;
+  }
+
+  // Returns the clip and counts a hit, or returns null and counts a miss.
+  synchronized DecodedClip get(final String key) {
+    final DecodedClip clip = mClips.get(key);
+    if (clip != null) {
+      mHitCount++;
+    } else {
+      mMissCount++;
+    }
+    return clip;
+  }
+
+  // Counts a request that was served without decoding by a clip shared with another sound.
+  synchronized void recordHit() {
+    mHitCount++;
+  }
+
+  synchronized void put(final String key, final DecodedClip clip) {
+    if (clip.getSizeBytes() > mMaxBytes) {
+      return;
+    }
+    final DecodedClip previousClip = mClips.put(key, clip);
+    if (previousClip != null) {
+      mSizeBytes -= previousClip.getSizeBytes();
+    }
+    mSizeBytes += clip.getSizeBytes();
+    trimToSize();
+  }
+
+  public synchronized void clear() {
+    mClips.clear();
+    mSizeBytes = 0;
+  }
+
+  private void trimToSize() {
+    final Iterator<Map.Entry<String, DecodedClip>> iterator = mClips.entrySet().iterator();
+    while (mSizeBytes > mMaxBytes && iterator.hasNext()) {
+      mSizeBytes -= iterator.next().getValue().getSizeBytes();
+      iterator.remove();
+      mEvictionCount++;
+    }
+  }
+
+  public synchronized WritableMap getStats() {
+    final WritableMap map = Arguments.createMap();
+    map.putDouble("maxBytes", mMaxBytes);
+    map.putDouble("sizeBytes", mSizeBytes);
+    map.putInt("entryCount", mClips.size());
+    map.putInt("hitCount", mHitCount);
+    map.putInt("missCount", mMissCount);
+    map.putInt("evictionCount", mEvictionCount);
+    map.putBoolean("useDirectBuffers", mShouldUseDirectBuffers);
+    return map;
+  }
+}
@@ -0,0 +1,66 @@
+package com.reactlibrary.player;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+// Fully decoded audio held in memory as interleaved 16-bit stereo frames at the sample rate of
+// the SoundEffectEngine output. Immutable once built, so it can be shared between any number of
+// voices playing the same effect.
+public final class DecodedClip {
+  public static final int CHANNEL_COUNT = 2;
+
+  final ShortBuffer samples;
+  final int frameCount;
+  final int sampleRate;
+
+  DecodedClip(final ShortBuffer samples, final int frameCount, final int sampleRate) {
+    this.samples = samples;
+    this.frameCount = frameCount;
+    this.sampleRate = sampleRate;
+  }
+
+  long getDurationMillis() {
+    return frameCount * 1000L / sampleRate;
+  }
+
+  long getSizeBytes() {
+    return (long) frameCount * CHANNEL_COUNT * 2;
+  }
+
+  // Converts decoded PCM with any channel count and sample rate to stereo at outputSampleRate,
+  // using linear interpolation. A direct buffer keeps the samples off the Java heap.
+  // Rounds down, so a clip of a frame or so can resample to no frames at all.
+  static int getOutputFrameCount(final int sampleCount, final int channelCount,
+                                 final int inputSampleRate, final int outputSampleRate) {
+    return (int) ((long) (sampleCount / channelCount) * outputSampleRate / inputSampleRate);
+  }
+
+  static DecodedClip fromPcm(final short[] pcm, final int sampleCount, final int channelCount,
+                             final int inputSampleRate, final int outputSampleRate,
+                             final boolean shouldUseDirectBuffer) {
+    final int inputFrameCount = sampleCount / channelCount;
+    final int outputFrameCount = getOutputFrameCount(sampleCount, channelCount, inputSampleRate, outputSampleRate);
+    final int outputSampleCount = outputFrameCount * CHANNEL_COUNT;
+    final ShortBuffer output = shouldUseDirectBuffer
+        ? ByteBuffer.allocateDirect(outputSampleCount * 2).order(ByteOrder.nativeOrder()).asShortBuffer()
+        : ShortBuffer.allocate(outputSampleCount);
+    final double step = (double) inputSampleRate / outputSampleRate;
+    final int rightChannel = channelCount > 1 ? 1 : 0;
+
+    for (int frame = 0; frame < outputFrameCount; frame++) {
+      final double position = frame * step;
+      final int index = (int) position;
+      final int nextIndex = Math.min(index + 1, inputFrameCount - 1);
+      final float fraction = (float) (position - index);
+
+      final int left = pcm[index * channelCount];
+      final int nextLeft = pcm[nextIndex * channelCount];
+      final int right = pcm[index * channelCount + rightChannel];
+      final int nextRight = pcm[nextIndex * channelCount + rightChannel];
+      output.put(frame * CHANNEL_COUNT, (short) (left + (nextLeft - left) * fraction));
+      output.put(frame * CHANNEL_COUNT + 1, (short) (right + (nextRight - right) * fraction));
+    }
+    return new DecodedClip(output, outputFrameCount, outputSampleRate);
+  }
+}
@@ -0,0 +1,138 @@
+package com.reactlibrary.player;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Makes paused players dormant, i.e. releases them while their sounds stay loaded, once more
+// than maxPreparedCount players are prepared or a player has been idle for maxIdleMillis. The
+// least recently active players go first. A dormant sound keeps its position and settings, and
+// is prepared again at that position by the next status that plays or seeks it.
+//
+// Disabled until configured. Must only be used from the thread of the looper it was created with.
+public class IdlePlayerEvictor {
+
+  private static final Comparator<PlayerData> LEAST_RECENTLY_ACTIVE_FIRST = new Comparator<PlayerData>() {
+    @Override
+    public int compare(final PlayerData first, final PlayerData second) {
+      return Long.compare(first.mLastActiveUptimeMillis, second.mLastActiveUptimeMillis);
+    }
+  };
+
+  private final Handler mHandler;
+  // A live view of the loaded sounds.
+  private final Collection<PlayerData> mPlayers;
+  private final List<PlayerData> mCandidates = new ArrayList<>();
+
+  // 0 means no limit.
+  private int mMaxPreparedCount = 0;
+  private long mMaxIdleMillis = 0;
+  private boolean mIsEvictionPending = false;
+  private int mEvictionCount = 0;
+
+  private final Runnable mEvictRunnable = new Runnable() {
+    @Override
+    public void run() {
+      mIsEvictionPending = false;
+      evict();
+    }
+  };
+
+  public IdlePlayerEvictor(final Looper looper, final Collection<PlayerData> players) {
+    mHandler = new Handler(looper);
+    mPlayers = players;
+  }
+
+  public void configure(final int maxPreparedCount, final long maxIdleMillis) {
+    mMaxPreparedCount = Math.max(0, maxPreparedCount);
+    mMaxIdleMillis = Math.max(0, maxIdleMillis);
+    evict();
+  }
+
+  private boolean isEnabled() {
+    return mMaxPreparedCount > 0 || mMaxIdleMillis > 0;
+  }
+
+  // Called whenever a sound was loaded, got a status or changed its playback state. Evicts at most
+  // once per message, after the change has been applied.
+  void onPlayersChanged() {
+    if (isEnabled() && !mIsEvictionPending) {
+      mIsEvictionPending = true;
+      mHandler.removeCallbacks(mEvictRunnable);
+      mHandler.post(mEvictRunnable);
+    }
+  }
+
+  private void evict() {
+    mHandler.removeCallbacks(mEvictRunnable);
+    mIsEvictionPending = false;
+    if (!isEnabled()) {
+      return;
+    }
+
+    final long now = SystemClock.uptimeMillis();
+    int preparedCount = 0;
+    for (final PlayerData player : mPlayers) {
+      if (player.holdsPreparedPlayer()) {
+        preparedCount++;
+        if (player.canBecomeDormant()) {
+          mCandidates.add(player);
+        }
+      }
+    }
+    Collections.sort(mCandidates, LEAST_RECENTLY_ACTIVE_FIRST);
+
+    long nextCheckUptimeMillis = now + mMaxIdleMillis;
+    for (final PlayerData player : mCandidates) {
+      final boolean isOverCount = mMaxPreparedCount > 0 && preparedCount > mMaxPreparedCount;
+      final boolean isIdleTooLong = mMaxIdleMillis > 0 && now - player.mLastActiveUptimeMillis >= mMaxIdleMillis;
+      if (isOverCount || isIdleTooLong) {
+        player.becomeDormant();
+        preparedCount--;
+        mEvictionCount++;
+      } else if (mMaxIdleMillis > 0) {
+        nextCheckUptimeMillis = Math.min(nextCheckUptimeMillis, player.mLastActiveUptimeMillis + mMaxIdleMillis);
+      }
+    }
+    mCandidates.clear();
+
+    // Players that are playing now may pause on their own, so the idle limit is checked at least
+    // once per interval.
+    if (mMaxIdleMillis > 0) {
+      mHandler.postAtTime(mEvictRunnable, nextCheckUptimeMillis);
+    }
+  }
+
+  public void clear() {
+    mHandler.removeCallbacks(mEvictRunnable);
+    mIsEvictionPending = false;
+  }
+
+  public WritableMap getStats() {
+    int preparedCount = 0;
+    int dormantCount = 0;
+    for (final PlayerData player : mPlayers) {
+      if (player.holdsPreparedPlayer()) {
+        preparedCount++;
+      } else if (player.isDormant()) {
+        dormantCount++;
+      }
+    }
+    final WritableMap map = Arguments.createMap();
+    map.putInt("maxPreparedCount", mMaxPreparedCount);
+    map.putDouble("maxIdleMillis", mMaxIdleMillis);
+    map.putInt("preparedCount", preparedCount);
+    map.putInt("dormantCount", dormantCount);
+    map.putInt("evictionCount", mEvictionCount);
+    return map;
+  }
+}
@@ -0,0 +1,119 @@
+package com.reactlibrary.player;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.android.exoplayer2.database.ExoDatabaseProvider;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+
+import java.io.File;
+
+// Module-wide on-disk cache for http(s) media. Downloaded bytes are kept in the app cache
+// directory and evicted least-recently-used once the byte budget is exceeded.
+public class MediaCache {
+
+  public static final long DEFAULT_MAX_BYTES = 100L * 1024L * 1024L;
+
+  private static final String CACHE_DIRECTORY_NAME = "exoplayer-audio-cache";
+  private static final String TAG = "PakExo";
+
+  private static SimpleCache cache = null;
+  // Released by releaseDetachedCache() after a reconfiguration, or before a new cache is opened on
+  // the same directory, whichever comes first.
+  private static SimpleCache detachedCache = null;
+  private static boolean enabled = true;
+  private static boolean cacheOnly = false;
+  private static long maxBytes = DEFAULT_MAX_BYTES;
+
+  private MediaCache() {
+  }
+
+  // Changing the byte budget or disabling the cache detaches it, which fails the next read of every
+  // source still open on it, so that is rejected while the cache is in use. The disk IO of releasing
+  // the detached cache is left to releaseDetachedCache().
+  public static synchronized void configure(final Context context, final boolean enabled,
+                                            final long maxBytes, final boolean cacheOnly,
+                                            final boolean isInUse) {
+    final boolean isResized = maxBytes > 0 && maxBytes != MediaCache.maxBytes;
+    final boolean shouldRelease = cache != null && (isResized || !enabled);
+    if (shouldRelease && isInUse) {
+      throw new IllegalStateException("The media cache cannot be resized or disabled while sounds are loaded or preloading.");
+    }
+    MediaCache.enabled = enabled;
+    MediaCache.cacheOnly = cacheOnly;
+    if (isResized) {
+      MediaCache.maxBytes = maxBytes;
+    }
+    if (shouldRelease) {
+      releaseDetachedCache();
+      detachedCache = cache;
+      cache = null;
+    }
+  }
+
+  public static synchronized boolean isEnabled() {
+    return enabled;
+  }
+
+  public static synchronized boolean isCacheOnly() {
+    return cacheOnly;
+  }
+
+  public static synchronized Cache getCache(final Context context) {
+    if (cache == null) {
+      releaseDetachedCache();
+      final Context applicationContext = context.getApplicationContext();
+      final File directory = new File(applicationContext.getCacheDir(), CACHE_DIRECTORY_NAME);
+      cache = new SimpleCache(directory, new LeastRecentlyUsedCacheEvictor(maxBytes),
+          new ExoDatabaseProvider(applicationContext));
+    }
+    return cache;
+  }
+
+  // Wraps the upstream factory so reads go through the cache. In cache-only mode the upstream is
+  // dropped and anything that was not cached before fails to open.
+  public static synchronized DataSource.Factory buildDataSourceFactory(final Context context,
+                                                                       final DataSource.Factory upstreamFactory) {
+    if (!enabled) {
+      return upstreamFactory;
+    }
+    return new CacheDataSource.Factory()
+        .setCache(getCache(context))
+        .setUpstreamDataSourceFactory(cacheOnly ? null : upstreamFactory)
+        .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+  }
+
+  public static synchronized long getCacheSpace() {
+    return cache != null ? cache.getCacheSpace() : 0;
+  }
+
+  // Deletes the cached files, so it should not run on the playback thread. Nothing is cached while
+  // the cache is disabled. The lock is not held while deleting, so that loads can go on.
+  public static void clear(final Context context) {
+    final Cache cache;
+    synchronized (MediaCache.class) {
+      if (!enabled) {
+        return;
+      }
+      cache = getCache(context);
+    }
+    for (final String key : cache.getKeys()) {
+      cache.removeResource(key);
+    }
+  }
+
+  public static synchronized void releaseDetachedCache() {
+    if (detachedCache != null) {
+      try {
+        detachedCache.release();
+      } catch (final Exception e) {
+        Log.d(TAG, "Error releasing media cache: " + e);
+      }
+      detachedCache = null;
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package com.reactlibrary.player;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.DefaultHttpDataSourceFactory;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheWriter;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Downloads the beginning (or the whole) of http(s) sources into the MediaCache without creating
+// any players, so that a later loadForSound is served from disk.
+public class MediaPreloader {
+
+  public interface Listener {
+    void onPreloadProgress(final Task task);
+
+    // Called once for every task, then onPreloadBatchComplete once all tasks of a batch are done.
+    void onPreloadComplete(final Task task);
+
+    void onPreloadBatchComplete(final int preloadKey, final List<Task> tasks);
+  }
+
+  public static final class Task implements Runnable {
+    public final int preloadKey;
+    public final String uri;
+    private final Context mContext;
+    private final long mLengthBytes;
+    private final Batch mBatch;
+
+    private volatile boolean mIsCancelled = false;
+    private volatile CacheWriter mCacheWriter = null;
+    private long mLastProgressEventMillis = 0;
+
+    public volatile long bytesCached = 0;
+    public volatile long requestLength = C.LENGTH_UNSET;
+    public volatile String error = null;
+    public volatile boolean skipped = false;
+
+    private Task(final Context context, final Batch batch, final String uri, final long lengthBytes) {
+      this.preloadKey = batch.preloadKey;
+      this.uri = uri;
+      mContext = context;
+      mBatch = batch;
+      mLengthBytes = lengthBytes;
+    }
+
+    public boolean isCancelled() {
+      return mIsCancelled;
+    }
+
+    void cancel() {
+      mIsCancelled = true;
+      final CacheWriter cacheWriter = mCacheWriter;
+      if (cacheWriter != null) {
+        cacheWriter.cancel();
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (!mIsCancelled) {
+          cache();
+        }
+      } catch (final InterruptedIOException e) {
+        // Thrown by CacheWriter when the task is cancelled.
+        mIsCancelled = true;
+      } catch (final Exception e) {
+        Log.d(TAG, "Preloading " + uri + " failed: " + e);
+        error = e.toString();
+      } finally {
+        mCacheWriter = null;
+        mBatch.onTaskComplete(this);
+      }
+    }
+
+    private void cache() throws Exception {
+      final Uri parsedUri = Uri.parse(uri);
+      final String scheme = parsedUri.getScheme();
+      if (!"http".equals(scheme) && !"https".equals(scheme)) {
+        // Local sources are already on the device.
+        skipped = true;
+        return;
+      }
+
+      // Built like the sources of playback, so that both read through the current cache instance
+      // and send the same requests.
+      final DataSource.Factory dataSourceFactory = MediaCache.buildDataSourceFactory(mContext,
+          new DefaultHttpDataSourceFactory(DataSourceUtil.getUserAgent(mContext)));
+      if (!(dataSourceFactory instanceof CacheDataSource.Factory)) {
+        throw new IllegalStateException("The media cache was disabled.");
+      }
+      final CacheDataSource dataSource = ((CacheDataSource.Factory) dataSourceFactory).createDataSourceForDownloading();
+      final DataSpec dataSpec = new DataSpec.Builder()
+          .setUri(parsedUri)
+          .setLength(mLengthBytes > 0 ? mLengthBytes : C.LENGTH_UNSET)
+          .build();
+
+      mCacheWriter = new CacheWriter(dataSource, dataSpec, true, null, new CacheWriter.ProgressListener() {
+        @Override
+        public void onProgress(final long requestLength, final long bytesCached, final long newBytesCached) {
+          Task.this.requestLength = requestLength;
+          Task.this.bytesCached = bytesCached;
+          final long now = SystemClock.elapsedRealtime();
+          if (now - mLastProgressEventMillis >= PROGRESS_EVENT_INTERVAL_MILLIS) {
+            mLastProgressEventMillis = now;
+            mBatch.listener.onPreloadProgress(Task.this);
+          }
+        }
+      });
+      if (mIsCancelled) {
+        return;
+      }
+      mCacheWriter.cache();
+    }
+  }
+
+  private static final class Batch {
+    final int preloadKey;
+    final Listener listener;
+    final List<Task> tasks = new ArrayList<>();
+    final AtomicInteger remaining = new AtomicInteger();
+    final MediaPreloader preloader;
+
+    Batch(final MediaPreloader preloader, final int preloadKey, final Listener listener) {
+      this.preloader = preloader;
+      this.preloadKey = preloadKey;
+      this.listener = listener;
+    }
+
+    void onTaskComplete(final Task task) {
+      listener.onPreloadComplete(task);
+      if (remaining.decrementAndGet() == 0) {
+        preloader.removeBatch(this);
+        listener.onPreloadBatchComplete(preloadKey, tasks);
+      }
+    }
+  }
+
+  private static final String TAG = "PakExo";
+  private static final long PROGRESS_EVENT_INTERVAL_MILLIS = 250;
+  private static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS = 2;
+
+  private final Context mContext;
+  private final List<Batch> mBatches = new ArrayList<>();
+  // Shared by all batches, so that the downloads of the module stay bounded however many batches
+  // overlap. Threads exit when there is nothing to download.
+  private final ThreadPoolExecutor mExecutor = new ThreadPoolExecutor(
+      DEFAULT_MAX_CONCURRENT_DOWNLOADS, DEFAULT_MAX_CONCURRENT_DOWNLOADS, 10, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>());
+
+  public MediaPreloader(final Context context) {
+    mContext = context.getApplicationContext();
+    mExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  public static long getLengthBytesForMillis(final long lengthMillis, final long estimatedBitrate) {
+    return lengthMillis * estimatedBitrate / 8000L;
+  }
+
+  // lengthBytes <= 0 caches the whole resource. maxConcurrentDownloads applies to all batches,
+  // including those already queued.
+  public void preload(final int preloadKey, final List<String> uris, final long lengthBytes,
+                      final int maxConcurrentDownloads, final Listener listener) {
+    if (!MediaCache.isEnabled() || MediaCache.isCacheOnly()) {
+      throw new IllegalStateException("Preloading requires the media cache to be enabled and not in cache-only mode.");
+    }
+
+    final Batch batch = new Batch(this, preloadKey, listener);
+    for (final String uri : uris) {
+      batch.tasks.add(new Task(mContext, batch, uri, lengthBytes));
+    }
+    if (batch.tasks.isEmpty()) {
+      listener.onPreloadBatchComplete(preloadKey, batch.tasks);
+      return;
+    }
+    batch.remaining.set(batch.tasks.size());
+    synchronized (mBatches) {
+      mBatches.add(batch);
+    }
+
+    setMaxConcurrentDownloads(Math.max(1, maxConcurrentDownloads));
+    for (final Task task : batch.tasks) {
+      mExecutor.execute(task);
+    }
+  }
+
+  // The core size never exceeds the maximum size in between.
+  private synchronized void setMaxConcurrentDownloads(final int count) {
+    if (count > mExecutor.getMaximumPoolSize()) {
+      mExecutor.setMaximumPoolSize(count);
+      mExecutor.setCorePoolSize(count);
+    } else {
+      mExecutor.setCorePoolSize(count);
+      mExecutor.setMaximumPoolSize(count);
+    }
+  }
+
+  // True until every task of every batch is done.
+  public boolean isPreloading() {
+    synchronized (mBatches) {
+      return !mBatches.isEmpty();
+    }
+  }
+
+  // A null uri cancels every pending and running preload.
+  public void cancel(@Nullable final String uri) {
+    synchronized (mBatches) {
+      for (final Batch batch : mBatches) {
+        for (final Task task : batch.tasks) {
+          if (uri == null || uri.equals(task.uri)) {
+            task.cancel();
+          }
+        }
+      }
+    }
+  }
+
+  private void removeBatch(final Batch batch) {
+    synchronized (mBatches) {
+      mBatches.remove(batch);
+    }
+  }
+}
@@ -0,0 +1,282 @@
+package com.reactlibrary.player;
+
+import android.media.MediaDataSource;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.Handler;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Reads the duration and bitrate of a source in the background without preparing a player, for
+// sounds loaded lazily. The media is read through the same data sources as playback, so http
+// sources end up in the media cache, and sources probed before are answered from memory.
+// Afterwards, the first prebufferMillis of http sources are read into the media cache on an
+// executor of their own, so that probes never wait for downloads.
+final class MetadataProbe implements Runnable {
+
+  interface Listener {
+    // durationMillis is C.TIME_UNSET if the source has no known duration.
+    void onProbeComplete(final long durationMillis);
+
+    void onProbeError(final String error);
+  }
+
+  private static final class Result {
+    final long durationMillis;
+    final int bitrate;
+
+    Result(final long durationMillis, final int bitrate) {
+      this.durationMillis = durationMillis;
+      this.bitrate = bitrate;
+    }
+  }
+
+  private static final String TAG = "PakExo";
+  private static final int MAX_CONCURRENT_PROBES = 2;
+  private static final int MAX_CONCURRENT_PREBUFFERS = 2;
+  private static final int MAX_CACHED_RESULTS = 64;
+  private static final int PREBUFFER_READ_SIZE = 16 * 1024;
+
+  // Threads exit when there is nothing to probe.
+  private static final ThreadPoolExecutor sExecutor = new ThreadPoolExecutor(
+      MAX_CONCURRENT_PROBES, MAX_CONCURRENT_PROBES, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+  private static final ThreadPoolExecutor sPrebufferExecutor = new ThreadPoolExecutor(
+      MAX_CONCURRENT_PREBUFFERS, MAX_CONCURRENT_PREBUFFERS, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+  private static final LruCache<String, Result> sResults = new LruCache<>(MAX_CACHED_RESULTS);
+
+  static {
+    sExecutor.allowCoreThreadTimeOut(true);
+    sPrebufferExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  private final Uri mUri;
+  private final DataSource.Factory mDataSourceFactory;
+  private final long mPrebufferMillis;
+  private final Handler mHandler;
+  private final Listener mListener;
+  private volatile boolean mIsCancelled = false;
+
+  private MetadataProbe(final Uri uri, final DataSource.Factory dataSourceFactory, final long prebufferMillis,
+                        final Handler handler, final Listener listener) {
+    mUri = uri;
+    mDataSourceFactory = dataSourceFactory;
+    mPrebufferMillis = prebufferMillis;
+    mHandler = handler;
+    mListener = listener;
+  }
+
+  // The listener is called on the thread of the handler, unless the probe was cancelled before.
+  static MetadataProbe start(final Uri uri, final DataSource.Factory dataSourceFactory, final long prebufferMillis,
+                             final Handler handler, final Listener listener) {
+    final MetadataProbe probe = new MetadataProbe(uri, dataSourceFactory, prebufferMillis, handler, listener);
+    sExecutor.execute(probe);
+    return probe;
+  }
+
+  // Also stops prebuffering.
+  void cancel() {
+    mIsCancelled = true;
+  }
+
+  @Override
+  public void run() {
+    if (mIsCancelled) {
+      return;
+    }
+    final String key = mUri.toString();
+    Result result = sResults.get(key);
+    if (result == null) {
+      try {
+        result = probe();
+        sResults.put(key, result);
+      } catch (final Exception e) {
+        Log.d(TAG, "Probing " + mUri + " failed: " + e);
+        final String error = e.toString();
+        mHandler.post(new Runnable() {
+          @Override
+          public void run() {
+            if (!mIsCancelled) {
+              mListener.onProbeError(error);
+            }
+          }
+        });
+        return;
+      }
+    }
+
+    final long durationMillis = result.durationMillis;
+    mHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        if (!mIsCancelled) {
+          mListener.onProbeComplete(durationMillis);
+        }
+      }
+    });
+
+    if (mPrebufferMillis > 0 && result.bitrate > 0 && isCachedScheme()) {
+      final long lengthBytes = MediaPreloader.getLengthBytesForMillis(mPrebufferMillis, result.bitrate);
+      sPrebufferExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          if (!mIsCancelled) {
+            prebuffer(lengthBytes);
+          }
+        }
+      });
+    }
+  }
+
+  // Failing to read the media is an error, while media the retriever does not understand only
+  // leaves the metadata unknown, as the player may still be able to play it.
+  private Result probe() throws IOException {
+    final DataSourceMediaDataSource mediaDataSource = new DataSourceMediaDataSource(mDataSourceFactory.createDataSource(), mUri);
+    final MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+    try {
+      retriever.setDataSource(mediaDataSource);
+      return new Result(
+          parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION), C.TIME_UNSET),
+          (int) parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_BITRATE), 0));
+    } catch (final RuntimeException e) {
+      if (mediaDataSource.getError() != null) {
+        throw mediaDataSource.getError();
+      }
+      return new Result(C.TIME_UNSET, 0);
+    } finally {
+      retriever.release();
+      mediaDataSource.close();
+    }
+  }
+
+  private boolean isCachedScheme() {
+    final String scheme = mUri.getScheme();
+    return ("http".equals(scheme) || "https".equals(scheme)) && MediaCache.isEnabled() && !MediaCache.isCacheOnly();
+  }
+
+  // Reads the first bytes through the caching data source, which writes them to the media cache.
+  private void prebuffer(final long lengthBytes) {
+    final DataSource dataSource = mDataSourceFactory.createDataSource();
+    try {
+      dataSource.open(new DataSpec.Builder().setUri(mUri).setLength(lengthBytes).build());
+      final byte[] buffer = new byte[PREBUFFER_READ_SIZE];
+      while (!mIsCancelled && dataSource.read(buffer, 0, buffer.length) != C.RESULT_END_OF_INPUT) {
+        // Only cached.
+      }
+    } catch (final IOException e) {
+      // The player loads the media again anyway.
+      Log.d(TAG, "Prebuffering " + mUri + " failed: " + e);
+    } finally {
+      try {
+        dataSource.close();
+      } catch (final IOException e) {
+        // Nothing to do.
+      }
+    }
+  }
+
+  private static long parseLong(final String value, final long defaultValue) {
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (final NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  // Random access for the retriever on top of a sequential DataSource, which is reopened at the
+  // requested position whenever the retriever jumps.
+  private static final class DataSourceMediaDataSource extends MediaDataSource {
+    private final DataSource mDataSource;
+    private final Uri mUri;
+    private boolean mIsOpen = false;
+    private long mPosition = 0;
+    private long mSize = C.LENGTH_UNSET;
+    private IOException mError = null;
+
+    DataSourceMediaDataSource(final DataSource dataSource, final Uri uri) {
+      mDataSource = dataSource;
+      mUri = uri;
+    }
+
+    synchronized IOException getError() {
+      return mError;
+    }
+
+    @Override
+    public synchronized int readAt(final long position, final byte[] buffer, final int offset, final int size) throws IOException {
+      if (size == 0) {
+        return 0;
+      }
+      if (mSize != C.LENGTH_UNSET && position >= mSize) {
+        return -1;
+      }
+      try {
+        if (!mIsOpen || position != mPosition) {
+          openAt(position);
+        }
+        final int read = mDataSource.read(buffer, offset, size);
+        if (read == C.RESULT_END_OF_INPUT) {
+          return -1;
+        }
+        mPosition += read;
+        return read;
+      } catch (final IOException e) {
+        if (mError == null) {
+          mError = e;
+        }
+        throw e;
+      }
+    }
+
+    @Override
+    public synchronized long getSize() throws IOException {
+      if (mSize == C.LENGTH_UNSET && !mIsOpen) {
+        try {
+          openAt(0);
+        } catch (final IOException e) {
+          if (mError == null) {
+            mError = e;
+          }
+          throw e;
+        }
+      }
+      return mSize;
+    }
+
+    private void openAt(final long position) throws IOException {
+      if (mIsOpen) {
+        mDataSource.close();
+        mIsOpen = false;
+      }
+      final long length = mDataSource.open(new DataSpec.Builder().setUri(mUri).setPosition(position).build());
+      mIsOpen = true;
+      mPosition = position;
+      if (mSize == C.LENGTH_UNSET && length != C.LENGTH_UNSET) {
+        mSize = position + length;
+      }
+    }
+
+    @Override
+    public synchronized void close() {
+      if (mIsOpen) {
+        try {
+          mDataSource.close();
+        } catch (final IOException e) {
+          // Nothing to do.
+        }
+        mIsOpen = false;
+      }
+    }
+  }
+}
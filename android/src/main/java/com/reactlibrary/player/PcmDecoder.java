@@ -0,0 +1,148 @@
+package com.reactlibrary.player;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.net.Uri;
+
+import com.google.android.exoplayer2.upstream.RawResourceDataSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+// Decodes a whole (short) audio file into memory with MediaExtractor and MediaCodec.
+final class PcmDecoder {
+
+  private static final long TIMEOUT_US = 10000;
+
+  private PcmDecoder() {
+  }
+
+  static DecodedClip decode(final Context context, final Uri uri, final int outputSampleRate,
+                            final long maxDurationMillis, final boolean shouldUseDirectBuffer) throws IOException {
+    final MediaExtractor extractor = new MediaExtractor();
+    MediaCodec codec = null;
+    try {
+      setDataSource(extractor, context, uri);
+
+      MediaFormat format = null;
+      for (int i = 0; i < extractor.getTrackCount(); i++) {
+        final MediaFormat trackFormat = extractor.getTrackFormat(i);
+        final String mime = trackFormat.getString(MediaFormat.KEY_MIME);
+        if (mime != null && mime.startsWith("audio/")) {
+          extractor.selectTrack(i);
+          format = trackFormat;
+          break;
+        }
+      }
+      if (format == null) {
+        throw new IOException("No audio track found in " + uri);
+      }
+      if (format.containsKey(MediaFormat.KEY_DURATION)
+          && format.getLong(MediaFormat.KEY_DURATION) / 1000 > maxDurationMillis) {
+        throw new IOException("Sound effects cannot be longer than " + maxDurationMillis + " ms.");
+      }
+
+      int sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+      int channelCount = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+
+      codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+      codec.configure(format, null, null, 0);
+      codec.start();
+
+      short[] pcm = new short[sampleRate * channelCount];
+      int sampleCount = 0;
+      final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+      boolean isInputDone = false;
+      boolean isOutputDone = false;
+
+      while (!isOutputDone) {
+        if (!isInputDone) {
+          final int inputIndex = codec.dequeueInputBuffer(TIMEOUT_US);
+          if (inputIndex >= 0) {
+            final ByteBuffer inputBuffer = codec.getInputBuffer(inputIndex);
+            final int size = extractor.readSampleData(inputBuffer, 0);
+            if (size < 0) {
+              codec.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+              isInputDone = true;
+            } else {
+              codec.queueInputBuffer(inputIndex, 0, size, extractor.getSampleTime(), 0);
+              extractor.advance();
+            }
+          }
+        }
+
+        final int outputIndex = codec.dequeueOutputBuffer(info, TIMEOUT_US);
+        if (outputIndex >= 0) {
+          if (info.size > 0) {
+            final ByteBuffer outputBuffer = codec.getOutputBuffer(outputIndex);
+            outputBuffer.position(info.offset);
+            outputBuffer.limit(info.offset + info.size);
+            final ShortBuffer shorts = outputBuffer.order(ByteOrder.nativeOrder()).asShortBuffer();
+            final int count = shorts.remaining();
+            if (sampleCount + count > pcm.length) {
+              pcm = Arrays.copyOf(pcm, Math.max(pcm.length * 2, sampleCount + count));
+            }
+            shorts.get(pcm, sampleCount, count);
+            sampleCount += count;
+          }
+          codec.releaseOutputBuffer(outputIndex, false);
+          if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+            isOutputDone = true;
+          }
+          // Files without a duration in their header are checked while decoding.
+          if ((long) sampleCount / channelCount * 1000 / sampleRate > maxDurationMillis) {
+            throw new IOException("Sound effects cannot be longer than " + maxDurationMillis + " ms.");
+          }
+        } else if (outputIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+          final MediaFormat outputFormat = codec.getOutputFormat();
+          sampleRate = outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+          channelCount = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+        }
+      }
+
+      if (sampleCount < channelCount
+          || DecodedClip.getOutputFrameCount(sampleCount, channelCount, sampleRate, outputSampleRate) < 1) {
+        throw new IOException("No audio decoded from " + uri);
+      }
+      return DecodedClip.fromPcm(pcm, sampleCount, channelCount, sampleRate, outputSampleRate, shouldUseDirectBuffer);
+    } finally {
+      if (codec != null) {
+        try {
+          codec.stop();
+        } catch (final IllegalStateException e) {
+          // The codec failed before it was started.
+        }
+        codec.release();
+      }
+      extractor.release();
+    }
+  }
+
+  private static void setDataSource(final MediaExtractor extractor, final Context context, final Uri uri) throws IOException {
+    final String scheme = uri.getScheme();
+    if (RawResourceDataSource.RAW_RESOURCE_SCHEME.equals(scheme)) {
+      final int identifier = Integer.parseInt(uri.getLastPathSegment());
+      try (AssetFileDescriptor descriptor = context.getResources().openRawResourceFd(identifier)) {
+        extractor.setDataSource(descriptor.getFileDescriptor(), descriptor.getStartOffset(), descriptor.getLength());
+      }
+    } else if ("asset".equals(scheme)) {
+      String path = uri.getPath();
+      if (path != null && path.startsWith("/")) {
+        path = path.substring(1);
+      }
+      try (AssetFileDescriptor descriptor = context.getAssets().openFd(path)) {
+        extractor.setDataSource(descriptor.getFileDescriptor(), descriptor.getStartOffset(), descriptor.getLength());
+      }
+    } else if ("file".equals(scheme)) {
+      extractor.setDataSource(uri.getPath());
+    } else {
+      extractor.setDataSource(context, uri, null);
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.reactlibrary.player;
+
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.WritableMap;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.source.LoadEventInfo;
+import com.google.android.exoplayer2.source.MediaLoadData;
+
+// Playback quality of one player, collected from its analytics events. All times are measured on
+// SystemClock.elapsedRealtime(), the clock of AnalyticsListener.EventTime.realtimeMs.
+//
+// Must only be used from the application thread of the player.
+public class PlaybackMetrics implements AnalyticsListener {
+
+  private final long mLoadStartRealtimeMillis;
+  private long mLoadDurationMillis = -1;
+
+  // A start is a play request answered by playback, measured until the player reports playing.
+  private long mPendingStartRealtimeMillis = -1;
+  private int mStartCount = 0;
+  private long mLastStartLatencyMillis = -1;
+  private long mTotalStartLatencyMillis = 0;
+
+  private int mPlaybackState = Player.STATE_IDLE;
+  private boolean mHasBeenReady = false;
+  private boolean mPlayWhenReady = false;
+  private long mRebufferStartRealtimeMillis = -1;
+  private int mRebufferCount = 0;
+  private long mRebufferDurationMillis = 0;
+
+  private long mPendingSeekRealtimeMillis = -1;
+  private int mSeekCount = 0;
+  private long mLastSeekLatencyMillis = -1;
+  private long mTotalSeekLatencyMillis = 0;
+
+  private int mLoadCount = 0;
+  private long mBytesLoaded = 0;
+  private long mBandwidthEstimateBitsPerSecond = -1;
+  private int mAudioUnderrunCount = 0;
+
+  PlaybackMetrics() {
+    mLoadStartRealtimeMillis = SystemClock.elapsedRealtime();
+  }
+
+  // AnalyticsListener
+
+  @Override
+  public void onPlayWhenReadyChanged(final EventTime eventTime, final boolean playWhenReady, final int reason) {
+    mPlayWhenReady = playWhenReady;
+    if (playWhenReady) {
+      mPendingStartRealtimeMillis = eventTime.realtimeMs;
+    } else {
+      mPendingStartRealtimeMillis = -1;
+      endRebuffer(eventTime.realtimeMs);
+    }
+  }
+
+  @Override
+  public void onPlaybackStateChanged(final EventTime eventTime, final int state) {
+    mPlaybackState = state;
+    if (state == Player.STATE_READY) {
+      if (!mHasBeenReady) {
+        mHasBeenReady = true;
+        mLoadDurationMillis = eventTime.realtimeMs - mLoadStartRealtimeMillis;
+      }
+      endRebuffer(eventTime.realtimeMs);
+      endSeek(eventTime.realtimeMs);
+    } else if (state == Player.STATE_BUFFERING) {
+      // Buffering after a seek or before the first ready state is not a stall.
+      if (mHasBeenReady && mPlayWhenReady && mPendingSeekRealtimeMillis < 0
+          && mRebufferStartRealtimeMillis < 0) {
+        mRebufferStartRealtimeMillis = eventTime.realtimeMs;
+        mRebufferCount++;
+      }
+    } else {
+      endRebuffer(eventTime.realtimeMs);
+      mPendingSeekRealtimeMillis = -1;
+    }
+  }
+
+  @Override
+  public void onIsPlayingChanged(final EventTime eventTime, final boolean isPlaying) {
+    if (isPlaying && mPendingStartRealtimeMillis >= 0) {
+      mLastStartLatencyMillis = eventTime.realtimeMs - mPendingStartRealtimeMillis;
+      mTotalStartLatencyMillis += mLastStartLatencyMillis;
+      mStartCount++;
+      mPendingStartRealtimeMillis = -1;
+    }
+  }
+
+  @Override
+  public void onSeekStarted(final EventTime eventTime) {
+    endRebuffer(eventTime.realtimeMs);
+    mPendingSeekRealtimeMillis = eventTime.realtimeMs;
+  }
+
+  // A seek within the buffered media can leave the player ready throughout, in which case no ready
+  // state ends it.
+  @Override
+  public void onSeekProcessed(final EventTime eventTime) {
+    if (mPlaybackState == Player.STATE_READY) {
+      endSeek(eventTime.realtimeMs);
+    }
+  }
+
+  @Override
+  public void onLoadCompleted(final EventTime eventTime, final LoadEventInfo loadEventInfo,
+                              final MediaLoadData mediaLoadData) {
+    mLoadCount++;
+    mBytesLoaded += loadEventInfo.bytesLoaded;
+  }
+
+  @Override
+  public void onBandwidthEstimate(final EventTime eventTime, final int totalLoadTimeMs,
+                                  final long totalBytesLoaded, final long bitrateEstimate) {
+    mBandwidthEstimateBitsPerSecond = bitrateEstimate;
+  }
+
+  @Override
+  public void onAudioUnderrun(final EventTime eventTime, final int bufferSize,
+                              final long bufferSizeMs, final long elapsedSinceLastFeedMs) {
+    mAudioUnderrunCount++;
+  }
+
+  private void endRebuffer(final long realtimeMillis) {
+    if (mRebufferStartRealtimeMillis >= 0) {
+      mRebufferDurationMillis += realtimeMillis - mRebufferStartRealtimeMillis;
+      mRebufferStartRealtimeMillis = -1;
+    }
+  }
+
+  private void endSeek(final long realtimeMillis) {
+    if (mPendingSeekRealtimeMillis >= 0) {
+      mLastSeekLatencyMillis = realtimeMillis - mPendingSeekRealtimeMillis;
+      mTotalSeekLatencyMillis += mLastSeekLatencyMillis;
+      mSeekCount++;
+      mPendingSeekRealtimeMillis = -1;
+    }
+  }
+
+  // Reporting
+
+  public int getRebufferCount() {
+    return mRebufferCount;
+  }
+
+  public long getRebufferDurationMillis() {
+    // Includes a stall that is still going on.
+    return mRebufferStartRealtimeMillis >= 0
+        ? mRebufferDurationMillis + SystemClock.elapsedRealtime() - mRebufferStartRealtimeMillis
+        : mRebufferDurationMillis;
+  }
+
+  public long getBytesLoaded() {
+    return mBytesLoaded;
+  }
+
+  public int getAudioUnderrunCount() {
+    return mAudioUnderrunCount;
+  }
+
+  // Unknown values are left out.
+  public void writeTo(final WritableMap map) {
+    if (mLoadDurationMillis >= 0) {
+      map.putDouble("loadDurationMillis", mLoadDurationMillis);
+    }
+    map.putInt("startCount", mStartCount);
+    if (mStartCount > 0) {
+      map.putDouble("lastStartLatencyMillis", mLastStartLatencyMillis);
+      map.putDouble("averageStartLatencyMillis", (double) mTotalStartLatencyMillis / mStartCount);
+    }
+    map.putInt("rebufferCount", mRebufferCount);
+    map.putDouble("rebufferDurationMillis", getRebufferDurationMillis());
+    map.putInt("seekCount", mSeekCount);
+    if (mSeekCount > 0) {
+      map.putDouble("lastSeekLatencyMillis", mLastSeekLatencyMillis);
+      map.putDouble("averageSeekLatencyMillis", (double) mTotalSeekLatencyMillis / mSeekCount);
+    }
+    map.putInt("loadCount", mLoadCount);
+    map.putDouble("bytesLoaded", mBytesLoaded);
+    if (mBandwidthEstimateBitsPerSecond >= 0) {
+      map.putDouble("bandwidthEstimateBitsPerSecond", mBandwidthEstimateBitsPerSecond);
+    }
+    map.putInt("audioUnderrunCount", mAudioUnderrunCount);
+  }
+}
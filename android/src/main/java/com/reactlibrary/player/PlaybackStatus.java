@@ -0,0 +1,263 @@
+package com.reactlibrary.player;
+
+import android.text.TextUtils;
+
+import com.facebook.react.bridge.WritableMap;
+
+import static com.reactlibrary.player.PlayerData.STATUS_ANDROID_IMPLEMENTATION_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_BITRATE_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_DID_JUST_FINISH_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_DURATION_MILLIS_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_EFFECTIVE_RATE_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_IS_BUFFERING_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_IS_DORMANT_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_IS_LIVE_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_IS_LOADED_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_IS_LOOPING_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_IS_MUTED_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_IS_PLAYING_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_PLAYABLE_DURATION_MILLIS_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_POSITION_MILLIS_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_PROGRESS_UPDATE_INTERVAL_MILLIS_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_QUEUE_INDEX_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_QUEUE_LENGTH_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_RATE_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_SHOULD_CORRECT_PITCH_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_SHOULD_PLAY_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_TIMESTAMP_MILLIS_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_URI_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_VOLUME_KEY_PATH;
+
+// Plain snapshot of a loaded player's status. PlayerData keeps the last snapshot it sent to JS,
+// so that it can send only the fields that changed since then.
+final class PlaybackStatus {
+  String androidImplementation;
+  String uri;
+  int progressUpdateIntervalMillis;
+  // durationMillis is 0 and not sent if there is no duration, e.g. for live streams.
+  boolean hasDuration;
+  int durationMillis;
+  int positionMillis;
+  int playableDurationMillis;
+  boolean shouldPlay;
+  boolean isPlaying;
+  boolean isBuffering;
+  float rate;
+  boolean shouldCorrectPitch;
+  float volume;
+  boolean isMuted;
+  boolean isLooping;
+  boolean didJustFinish;
+  // SystemClock.elapsedRealtime() when the snapshot was taken, and the rate at which the position
+  // advances from there (0 unless playing). Together they let JS extrapolate the position.
+  long timestampMillis;
+  float effectiveRate;
+  boolean isLive;
+  // Bitrate of the selected audio format in bits per second, 0 and not sent if unknown.
+  int bitrate;
+  // Only sent for queues, i.e. when queueLength > 0.
+  int queueIndex;
+  int queueLength;
+  // Set while the player is released by the IdlePlayerEvictor.
+  boolean isDormant;
+
+  void copyFrom(final PlaybackStatus other) {
+    androidImplementation = other.androidImplementation;
+    uri = other.uri;
+    progressUpdateIntervalMillis = other.progressUpdateIntervalMillis;
+    hasDuration = other.hasDuration;
+    durationMillis = other.durationMillis;
+    positionMillis = other.positionMillis;
+    playableDurationMillis = other.playableDurationMillis;
+    shouldPlay = other.shouldPlay;
+    isPlaying = other.isPlaying;
+    isBuffering = other.isBuffering;
+    rate = other.rate;
+    shouldCorrectPitch = other.shouldCorrectPitch;
+    volume = other.volume;
+    isMuted = other.isMuted;
+    isLooping = other.isLooping;
+    didJustFinish = other.didJustFinish;
+    timestampMillis = other.timestampMillis;
+    effectiveRate = other.effectiveRate;
+    queueIndex = other.queueIndex;
+    queueLength = other.queueLength;
+    isLive = other.isLive;
+    bitrate = other.bitrate;
+    isDormant = other.isDormant;
+  }
+
+  // Where the position would be at timestampMillis if playback continued undisturbed.
+  long getExtrapolatedPositionMillis(final long timestampMillis) {
+    long position = positionMillis + (long) ((timestampMillis - this.timestampMillis) * effectiveRate);
+    if (durationMillis > 0) {
+      position = Math.min(position, durationMillis);
+    }
+    return Math.max(0, position);
+  }
+
+  // Compares everything but the fields that advance continuously during playback.
+  boolean isSameDiscreteStateAs(final PlaybackStatus other) {
+    return TextUtils.equals(androidImplementation, other.androidImplementation)
+        && TextUtils.equals(uri, other.uri)
+        && progressUpdateIntervalMillis == other.progressUpdateIntervalMillis
+        && hasDuration == other.hasDuration
+        && durationMillis == other.durationMillis
+        && shouldPlay == other.shouldPlay
+        && isPlaying == other.isPlaying
+        && isBuffering == other.isBuffering
+        && rate == other.rate
+        && shouldCorrectPitch == other.shouldCorrectPitch
+        && volume == other.volume
+        && isMuted == other.isMuted
+        && isLooping == other.isLooping
+        && didJustFinish == other.didJustFinish
+        && effectiveRate == other.effectiveRate
+        && queueIndex == other.queueIndex
+        && queueLength == other.queueLength
+        && isLive == other.isLive
+        && bitrate == other.bitrate
+        && isDormant == other.isDormant;
+  }
+
+  // The timestamp is ignored, a status taken later with nothing else changed is the same.
+  boolean isSameAs(final PlaybackStatus other) {
+    return isSameDiscreteStateAs(other)
+        && positionMillis == other.positionMillis
+        && playableDurationMillis == other.playableDurationMillis;
+  }
+
+  void writeTo(final WritableMap map) {
+    map.putBoolean(STATUS_IS_LOADED_KEY_PATH, true);
+    map.putString(STATUS_ANDROID_IMPLEMENTATION_KEY_PATH, androidImplementation);
+    map.putString(STATUS_URI_KEY_PATH, uri);
+    map.putInt(STATUS_PROGRESS_UPDATE_INTERVAL_MILLIS_KEY_PATH, progressUpdateIntervalMillis);
+    if (hasDuration) {
+      map.putInt(STATUS_DURATION_MILLIS_KEY_PATH, durationMillis);
+    }
+    map.putInt(STATUS_POSITION_MILLIS_KEY_PATH, positionMillis);
+    map.putInt(STATUS_PLAYABLE_DURATION_MILLIS_KEY_PATH, playableDurationMillis);
+    map.putBoolean(STATUS_SHOULD_PLAY_KEY_PATH, shouldPlay);
+    map.putBoolean(STATUS_IS_PLAYING_KEY_PATH, isPlaying);
+    map.putBoolean(STATUS_IS_BUFFERING_KEY_PATH, isBuffering);
+    map.putDouble(STATUS_RATE_KEY_PATH, rate);
+    map.putBoolean(STATUS_SHOULD_CORRECT_PITCH_KEY_PATH, shouldCorrectPitch);
+    map.putDouble(STATUS_VOLUME_KEY_PATH, volume);
+    map.putBoolean(STATUS_IS_MUTED_KEY_PATH, isMuted);
+    map.putBoolean(STATUS_IS_LOOPING_KEY_PATH, isLooping);
+    map.putBoolean(STATUS_DID_JUST_FINISH_KEY_PATH, didJustFinish);
+    map.putDouble(STATUS_TIMESTAMP_MILLIS_KEY_PATH, timestampMillis);
+    map.putDouble(STATUS_EFFECTIVE_RATE_KEY_PATH, effectiveRate);
+    if (queueLength > 0) {
+      map.putInt(STATUS_QUEUE_INDEX_KEY_PATH, queueIndex);
+      map.putInt(STATUS_QUEUE_LENGTH_KEY_PATH, queueLength);
+    }
+    map.putBoolean(STATUS_IS_LIVE_KEY_PATH, isLive);
+    if (bitrate > 0) {
+      map.putInt(STATUS_BITRATE_KEY_PATH, bitrate);
+    }
+    map.putBoolean(STATUS_IS_DORMANT_KEY_PATH, isDormant);
+  }
+
+  // Writes only the fields that differ from previous and returns how many were written.
+  int writeChangesTo(final PlaybackStatus previous, final WritableMap map) {
+    int count = 0;
+    if (!TextUtils.equals(androidImplementation, previous.androidImplementation)) {
+      map.putString(STATUS_ANDROID_IMPLEMENTATION_KEY_PATH, androidImplementation);
+      count++;
+    }
+    if (!TextUtils.equals(uri, previous.uri)) {
+      map.putString(STATUS_URI_KEY_PATH, uri);
+      count++;
+    }
+    if (progressUpdateIntervalMillis != previous.progressUpdateIntervalMillis) {
+      map.putInt(STATUS_PROGRESS_UPDATE_INTERVAL_MILLIS_KEY_PATH, progressUpdateIntervalMillis);
+      count++;
+    }
+    if (hasDuration != previous.hasDuration || durationMillis != previous.durationMillis) {
+      if (hasDuration) {
+        map.putInt(STATUS_DURATION_MILLIS_KEY_PATH, durationMillis);
+      } else {
+        map.putNull(STATUS_DURATION_MILLIS_KEY_PATH);
+      }
+      count++;
+    }
+    if (positionMillis != previous.positionMillis) {
+      map.putInt(STATUS_POSITION_MILLIS_KEY_PATH, positionMillis);
+      count++;
+    }
+    if (playableDurationMillis != previous.playableDurationMillis) {
+      map.putInt(STATUS_PLAYABLE_DURATION_MILLIS_KEY_PATH, playableDurationMillis);
+      count++;
+    }
+    if (shouldPlay != previous.shouldPlay) {
+      map.putBoolean(STATUS_SHOULD_PLAY_KEY_PATH, shouldPlay);
+      count++;
+    }
+    if (isPlaying != previous.isPlaying) {
+      map.putBoolean(STATUS_IS_PLAYING_KEY_PATH, isPlaying);
+      count++;
+    }
+    if (isBuffering != previous.isBuffering) {
+      map.putBoolean(STATUS_IS_BUFFERING_KEY_PATH, isBuffering);
+      count++;
+    }
+    if (rate != previous.rate) {
+      map.putDouble(STATUS_RATE_KEY_PATH, rate);
+      count++;
+    }
+    if (shouldCorrectPitch != previous.shouldCorrectPitch) {
+      map.putBoolean(STATUS_SHOULD_CORRECT_PITCH_KEY_PATH, shouldCorrectPitch);
+      count++;
+    }
+    if (volume != previous.volume) {
+      map.putDouble(STATUS_VOLUME_KEY_PATH, volume);
+      count++;
+    }
+    if (isMuted != previous.isMuted) {
+      map.putBoolean(STATUS_IS_MUTED_KEY_PATH, isMuted);
+      count++;
+    }
+    if (isLooping != previous.isLooping) {
+      map.putBoolean(STATUS_IS_LOOPING_KEY_PATH, isLooping);
+      count++;
+    }
+    if (didJustFinish != previous.didJustFinish) {
+      map.putBoolean(STATUS_DID_JUST_FINISH_KEY_PATH, didJustFinish);
+      count++;
+    }
+    if (effectiveRate != previous.effectiveRate) {
+      map.putDouble(STATUS_EFFECTIVE_RATE_KEY_PATH, effectiveRate);
+      count++;
+    }
+    if (queueIndex != previous.queueIndex) {
+      map.putInt(STATUS_QUEUE_INDEX_KEY_PATH, queueIndex);
+      count++;
+    }
+    if (queueLength != previous.queueLength) {
+      map.putInt(STATUS_QUEUE_LENGTH_KEY_PATH, queueLength);
+      count++;
+    }
+    if (isLive != previous.isLive) {
+      map.putBoolean(STATUS_IS_LIVE_KEY_PATH, isLive);
+      count++;
+    }
+    if (bitrate != previous.bitrate) {
+      if (bitrate > 0) {
+        map.putInt(STATUS_BITRATE_KEY_PATH, bitrate);
+      } else {
+        map.putNull(STATUS_BITRATE_KEY_PATH);
+      }
+      count++;
+    }
+    if (isDormant != previous.isDormant) {
+      map.putBoolean(STATUS_IS_DORMANT_KEY_PATH, isDormant);
+      count++;
+    }
+    if (count > 0) {
+      // Any change re-anchors the extrapolation in JS.
+      map.putDouble(STATUS_TIMESTAMP_MILLIS_KEY_PATH, timestampMillis);
+    }
+    return count;
+  }
+}
@@ -3,6 +3,7 @@ package com.reactlibrary.player;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.Pair;
 import android.view.Surface;
@@ -10,15 +11,17 @@ import android.view.Surface;
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.WritableMap;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.google.android.exoplayer2.upstream.RawResourceDataSource;
 import com.reactlibrary.AVModule;
 import com.reactlibrary.AudioEventHandler;
+import com.reactlibrary.AudioFocusRegistry;
 
 public abstract class PlayerData implements AudioEventHandler {
   static final String STATUS_ANDROID_IMPLEMENTATION_KEY_PATH = "androidImplementation";
@@ -26,6 +29,7 @@ public abstract class PlayerData implements AudioEventHandler {
   public static final String STATUS_URI_KEY_PATH = "uri";
   static final String STATUS_OVERRIDING_EXTENSION_KEY_PATH = "overridingExtension";
   static final String STATUS_PROGRESS_UPDATE_INTERVAL_MILLIS_KEY_PATH = "progressUpdateIntervalMillis";
+  static final String STATUS_MIN_STATUS_UPDATE_INTERVAL_MILLIS_KEY_PATH = "minStatusUpdateIntervalMillis";
   static final String STATUS_DURATION_MILLIS_KEY_PATH = "durationMillis";
   static final String STATUS_POSITION_MILLIS_KEY_PATH = "positionMillis";
   static final String STATUS_PLAYABLE_DURATION_MILLIS_KEY_PATH = "playableDurationMillis";
@@ -38,6 +42,15 @@ public abstract class PlayerData implements AudioEventHandler {
   static final String STATUS_IS_MUTED_KEY_PATH = "isMuted";
   static final String STATUS_IS_LOOPING_KEY_PATH = "isLooping";
   static final String STATUS_DID_JUST_FINISH_KEY_PATH = "didJustFinish";
+  static final String STATUS_IS_DELTA_KEY_PATH = "isDelta";
+  static final String STATUS_TIMESTAMP_MILLIS_KEY_PATH = "timestampMillis";
+  static final String STATUS_EFFECTIVE_RATE_KEY_PATH = "effectiveRate";
+  static final String STATUS_POSITION_DRIFT_THRESHOLD_MILLIS_KEY_PATH = "positionDriftThresholdMillis";
+  static final String STATUS_QUEUE_INDEX_KEY_PATH = "queueIndex";
+  static final String STATUS_IS_LIVE_KEY_PATH = "isLive";
+  static final String STATUS_BITRATE_KEY_PATH = "bitrate";
+  static final String STATUS_QUEUE_LENGTH_KEY_PATH = "queueLength";
+  static final String STATUS_IS_DORMANT_KEY_PATH = "isDormant";
 
   private static final String TAG = "PakExo";
 
@@ -67,6 +80,16 @@ public abstract class PlayerData implements AudioEventHandler {
     void onSetStatusError(final String error);
   }
 
+  static final class QueueItem {
+    final Uri uri;
+    final String overridingExtension;
+
+    QueueItem(final Uri uri, final String overridingExtension) {
+      this.uri = uri;
+      this.overridingExtension = overridingExtension;
+    }
+  }
+
   public interface FullscreenPresenter {
     boolean isBeingPresentedFullscreen();
     void setFullscreenMode(boolean isFullscreen);
@@ -74,12 +97,42 @@ public abstract class PlayerData implements AudioEventHandler {
 
   final AVModule mAVModule;
   final Uri mUri;
+  private final AudioFocusRegistry.Node mAudioFocusNode = new AudioFocusRegistry.Node(this);
+
+  // Bookkeeping of the module-wide ProgressUpdateScheduler.
+  boolean mIsProgressUpdateScheduled = false;
+  boolean mIsInProgressUpdateList = false;
+  long mNextProgressUpdateUptimeMillis = 0;
+
+  // Reused snapshots: the status being built and the last status handed to JS.
+  private final PlaybackStatus mCurrentStatus = new PlaybackStatus();
+  private final PlaybackStatus mLastSentStatus = new PlaybackStatus();
+  private boolean mHasSentStatus = false;
+  // Where every built status is also published, see StatusBuffer.
+  private int mStatusBufferKey = -1;
+  private int mStatusBufferSlot = -1;
+
+  private long mLastStatusUpdateUptimeMillis = 0;
+  private boolean mIsStatusUpdatePending = false;
+  private final Runnable mPendingStatusUpdateRunnable = new Runnable() {
+    @Override
+    public void run() {
+      mIsStatusUpdatePending = false;
+      if (isLoaded()) {
+        callStatusUpdateListener();
+      }
+    }
+  };
+
+  // When the sound was last given a status or changed its playback state, see IdlePlayerEvictor.
+  long mLastActiveUptimeMillis = SystemClock.uptimeMillis();
 
-  private Timer mTimer = null;
   private StatusUpdateListener mStatusUpdateListener = null;
   ErrorListener mErrorListener = null;
 
   private int mProgressUpdateIntervalMillis = 500;
+  private int mMinStatusUpdateIntervalMillis = 0;
+  private int mPositionDriftThresholdMillis = 0;
   boolean mShouldPlay = false;
   float mRate = 1.0f;
   boolean mShouldCorrectPitch = false;
@@ -92,6 +145,32 @@ public abstract class PlayerData implements AudioEventHandler {
   }
 
   public static PlayerData createUnloadedPlayerData(final AVModule avModule, final ReactContext context, final ReadableMap source, final ReadableMap status) {
+    final QueueItem item = getQueueItemForSource(context, source);
+    final String implementationName = source.hasKey(STATUS_ANDROID_IMPLEMENTATION_KEY_PATH)
+        ? source.getString(STATUS_ANDROID_IMPLEMENTATION_KEY_PATH) : null;
+    if (SoundEffectPlayerData.IMPLEMENTATION_NAME.equals(implementationName)) {
+      return new SoundEffectPlayerData(avModule, item.uri);
+    }
+    return new SimpleExoPlayerData(avModule, context, item.uri, item.overridingExtension);
+  }
+
+  public static PlayerData createUnloadedQueuePlayerData(final AVModule avModule, final ReactContext context, final ReadableArray sources, final ReadableMap status) {
+    final List<QueueItem> items = getQueueItemsForSources(context, sources);
+    if (items.isEmpty()) {
+      throw new IllegalArgumentException("Cannot load an empty queue.");
+    }
+    return new SimpleExoPlayerData(avModule, context, items);
+  }
+
+  static List<QueueItem> getQueueItemsForSources(final ReactContext context, final ReadableArray sources) {
+    final List<QueueItem> items = new ArrayList<>(sources.size());
+    for (int i = 0; i < sources.size(); i++) {
+      items.add(getQueueItemForSource(context, sources.getMap(i)));
+    }
+    return items;
+  }
+
+  private static QueueItem getQueueItemForSource(final ReactContext context, final ReadableMap source) {
     final String uriString = source.getString(STATUS_URI_KEY_PATH);
     final String uriOverridingExtension = source.hasKey(STATUS_OVERRIDING_EXTENSION_KEY_PATH) ? source.getString(STATUS_OVERRIDING_EXTENSION_KEY_PATH) : null;
 
@@ -100,7 +179,7 @@ public abstract class PlayerData implements AudioEventHandler {
       Log.d(TAG, "startsWithValidScheme, srcUri: " + srcUri);
 
       if (srcUri != null) {
-        return new SimpleExoPlayerData(avModule, context, srcUri, uriOverridingExtension);
+        return new QueueItem(srcUri, uriOverridingExtension);
       }
     } else {
       int identifier = context.getResources().getIdentifier(
@@ -121,14 +200,14 @@ public abstract class PlayerData implements AudioEventHandler {
         Uri srcUri = RawResourceDataSource.buildRawResourceUri(identifier);
         Log.d(TAG, "identifier > 0, srcUri: " + srcUri);
         if (srcUri != null) {
-          return new SimpleExoPlayerData(avModule, context, srcUri, uriOverridingExtension);
+          return new QueueItem(srcUri, uriOverridingExtension);
         }
       }
     }
 
     // uriString is guaranteed not to be null (Sound.loadAsync handle that case)
     final Uri uri = Uri.parse(uriString);
-    return new SimpleExoPlayerData(avModule, context, uri, uriOverridingExtension);
+    return new QueueItem(uri, uriOverridingExtension);
   }
 
   private static boolean startsWithValidScheme(String uriString) {
@@ -143,6 +222,11 @@ public abstract class PlayerData implements AudioEventHandler {
 
   abstract Looper getExoPlayerLooper();
 
+  // The uri of the media currently played, which changes while a queue advances.
+  Uri getCurrentUri() {
+    return mUri;
+  }
+
   // Lifecycle
 
   public abstract void load(final ReadableMap status, final LoadCompletionListener loadCompletionListener);
@@ -158,67 +242,88 @@ public abstract class PlayerData implements AudioEventHandler {
   }
 
   final void callStatusUpdateListenerWithDidJustFinish() {
+    if (mStatusUpdateListener == null) {
+      return;
+    }
+    // Always a full status sent right away, so that JS cannot miss the one-off didJustFinish.
+    cancelPendingStatusUpdate();
     final WritableMap status = getStatus();
     status.putBoolean(STATUS_DID_JUST_FINISH_KEY_PATH, true);
+    mLastStatusUpdateUptimeMillis = SystemClock.uptimeMillis();
     callStatusUpdateListenerWithStatus(status);
   }
 
+  // Statuses identical to the last one sent are dropped, and updates closer together than
+  // mMinStatusUpdateIntervalMillis are coalesced into one sent at the end of the interval.
   final void callStatusUpdateListener() {
-    callStatusUpdateListenerWithStatus(getStatus());
+    if (mStatusUpdateListener == null) {
+      return;
+    }
+
+    final long now = SystemClock.uptimeMillis();
+    if (mMinStatusUpdateIntervalMillis > 0 && now - mLastStatusUpdateUptimeMillis < mMinStatusUpdateIntervalMillis) {
+      if (!mIsStatusUpdatePending) {
+        mIsStatusUpdatePending = true;
+        mAVModule.getProgressUpdateScheduler().getHandler().postAtTime(mPendingStatusUpdateRunnable,
+            mLastStatusUpdateUptimeMillis + mMinStatusUpdateIntervalMillis);
+      }
+      return;
+    }
+    cancelPendingStatusUpdate();
+
+    final WritableMap status = mAVModule.shouldSendStatusDeltas() ? getStatusDelta() : getStatusIfChanged();
+    if (status != null) {
+      mLastStatusUpdateUptimeMillis = now;
+      callStatusUpdateListenerWithStatus(status);
+    }
+  }
+
+  // Called by the ProgressUpdateScheduler. With a drift threshold set, JS extrapolates the position
+  // from the last status, so a progress tick only sends a status if the position moved away from
+  // that extrapolation or anything else changed. Seeks, pauses, buffering and rate changes are
+  // sent through the player events as usual.
+  final void onProgressUpdateTick() {
+    if (mPositionDriftThresholdMillis > 0 && !hasDriftedFromLastSentStatus()) {
+      return;
+    }
+    callStatusUpdateListener();
+  }
+
+  private synchronized boolean hasDriftedFromLastSentStatus() {
+    if (!isLoaded() || !mHasSentStatus) {
+      return true;
+    }
+    fillCurrentStatus();
+    if (!mCurrentStatus.isSameDiscreteStateAs(mLastSentStatus)) {
+      return true;
+    }
+    final long extrapolatedPositionMillis = mLastSentStatus.getExtrapolatedPositionMillis(mCurrentStatus.timestampMillis);
+    return Math.abs(mCurrentStatus.positionMillis - extrapolatedPositionMillis) >= mPositionDriftThresholdMillis;
+  }
+
+  private void cancelPendingStatusUpdate() {
+    if (mIsStatusUpdatePending) {
+      mIsStatusUpdatePending = false;
+      mAVModule.getProgressUpdateScheduler().getHandler().removeCallbacks(mPendingStatusUpdateRunnable);
+    }
   }
 
   abstract boolean shouldContinueUpdatingProgress();
 
   final void stopUpdatingProgressIfNecessary() {
-    if (mTimer != null) {
-      final Timer timer = mTimer;
-      mTimer = null;
-      timer.cancel();
-    }
-  }
-
-//  private void progressUpdateLoop() {
-//    if (shouldContinueUpdatingProgress()) {
-//      mTimer = new Timer();
-//      mTimer.schedule(new TimerTask() {
-//        @Override
-//        public void run() {
-//          callStatusUpdateListener();
-//          progressUpdateLoop();
-//        }
-//      }, mProgressUpdateIntervalMillis);
-//    } else {
-//      stopUpdatingProgressIfNecessary();
-//    }
-//  }
-
-    private void progressUpdateLoop() {
-        if (shouldContinueUpdatingProgress()) {
-            mTimer = new Timer();
-            mTimer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    // Post to the main thread to ensure all ExoPlayer interactions happen on the UI thread
-                    new Handler(getExoPlayerLooper()).post(new Runnable() {
-                        @Override
-                        public void run() {
-                            callStatusUpdateListener();
-                            progressUpdateLoop();
-                        }
-                    });
-                }
-            }, mProgressUpdateIntervalMillis);
-        } else {
-            stopUpdatingProgressIfNecessary();
-        }
-    }
+    mAVModule.getProgressUpdateScheduler().unschedule(this);
+  }
 
   final void beginUpdatingProgressIfNecessary() {
-    if (mTimer == null) {
-      progressUpdateLoop();
+    if (!mIsProgressUpdateScheduled && shouldContinueUpdatingProgress()) {
+      mAVModule.getProgressUpdateScheduler().schedule(this);
     }
   }
 
+  final int getProgressUpdateIntervalMillis() {
+    return mProgressUpdateIntervalMillis;
+  }
+
   public final void setStatusUpdateListener(final StatusUpdateListener listener) {
     mStatusUpdateListener = listener;
     if (mStatusUpdateListener != null) {
@@ -248,6 +353,14 @@ public abstract class PlayerData implements AudioEventHandler {
       mProgressUpdateIntervalMillis = (int) status.getDouble(STATUS_PROGRESS_UPDATE_INTERVAL_MILLIS_KEY_PATH);
     }
 
+    if (status.hasKey(STATUS_MIN_STATUS_UPDATE_INTERVAL_MILLIS_KEY_PATH)) {
+      mMinStatusUpdateIntervalMillis = (int) status.getDouble(STATUS_MIN_STATUS_UPDATE_INTERVAL_MILLIS_KEY_PATH);
+    }
+
+    if (status.hasKey(STATUS_POSITION_DRIFT_THRESHOLD_MILLIS_KEY_PATH)) {
+      mPositionDriftThresholdMillis = (int) status.getDouble(STATUS_POSITION_DRIFT_THRESHOLD_MILLIS_KEY_PATH);
+    }
+
     final Integer newPositionMillis;
     if (status.hasKey(STATUS_POSITION_MILLIS_KEY_PATH)) {
       // Even though we set the position with an int, this is a double in the map because iOS can
@@ -288,11 +401,14 @@ public abstract class PlayerData implements AudioEventHandler {
       applyNewStatus(newPositionMillis, newIsLooping);
     } catch (final Throwable throwable) {
       Log.d(TAG, "Error in applyNewStatus thrown!");
+      updateAudioFocusRequirement();
       mAVModule.abandonAudioFocusIfUnused();
       setStatusCompletionListener.onSetStatusError(throwable.toString());
       return;
     }
+    updateAudioFocusRequirement();
     mAVModule.abandonAudioFocusIfUnused();
+    markActive();
     setStatusCompletionListener.onSetStatusComplete();
   }
 
@@ -331,13 +447,69 @@ public abstract class PlayerData implements AudioEventHandler {
     }
   }
 
+  // Same as setStatus with a promise, for batches: returns null on success or the error message.
+  public final String applyStatus(final ReadableMap status) {
+    if (status == null) {
+      return "Cannot set null status.";
+    }
+
+    final String[] error = {null};
+    try {
+      setStatusWithListener(status, new SetStatusCompletionListener() {
+        @Override
+        public void onSetStatusComplete() {
+        }
+
+        @Override
+        public void onSetStatusError(final String setStatusError) {
+          error[0] = setStatusError;
+        }
+      });
+    } catch (final Throwable throwable) {
+      return "Encountered an error while setting status! " + throwable;
+    }
+    return error[0];
+  }
+
   final int getClippedIntegerForValue(final Integer value, final Integer min, final Integer max) {
     return (min != null && value < min) ? min : (max != null && value > max) ? max : value;
   }
 
   abstract boolean isLoaded();
 
-  abstract void getExtraStatusFields(final WritableMap map);
+  // Sets durationMillis, positionMillis, playableDurationMillis, isPlaying, isBuffering,
+  // isLooping and, for queues, queueIndex and queueLength.
+  abstract void getExtraStatusFields(final PlaybackStatus status);
+
+  private void fillCurrentStatus() {
+    final PlaybackStatus status = mCurrentStatus;
+    status.androidImplementation = getImplementationName();
+    status.uri = getCurrentUri().getPath();
+    status.progressUpdateIntervalMillis = mProgressUpdateIntervalMillis;
+    status.shouldPlay = mShouldPlay;
+    status.rate = mRate;
+    status.shouldCorrectPitch = mShouldCorrectPitch;
+    status.volume = mVolume;
+    status.isMuted = mIsMuted;
+    status.didJustFinish = false;
+    status.timestampMillis = SystemClock.elapsedRealtime();
+    status.hasDuration = true;
+    status.isLive = false;
+    status.bitrate = 0;
+    status.queueIndex = -1;
+    status.queueLength = 0;
+    status.isDormant = false;
+    getExtraStatusFields(status);
+    status.effectiveRate = status.isPlaying ? mRate : 0f;
+    if (mStatusBufferSlot >= 0) {
+      mAVModule.getStatusBuffer().write(mStatusBufferKey, mStatusBufferSlot, status);
+    }
+  }
+
+  public synchronized final void setStatusBufferSlot(final int key, final int slot) {
+    mStatusBufferKey = key;
+    mStatusBufferSlot = slot;
+  }
 
   // Sometimes another thread would release the player
   // in the middle of `getStatus()` call, which would result
@@ -348,41 +520,128 @@ public abstract class PlayerData implements AudioEventHandler {
     if (!isLoaded()) {
       final WritableMap map = getUnloadedStatus();
       map.putString(STATUS_ANDROID_IMPLEMENTATION_KEY_PATH, getImplementationName());
+      mHasSentStatus = false;
       return map;
     }
 
+    fillCurrentStatus();
     final WritableMap map = Arguments.createMap();
+    mCurrentStatus.writeTo(map);
+
+    // Every full status ends up in JS, so later deltas are computed against it.
+    mLastSentStatus.copyFrom(mCurrentStatus);
+    mHasSentStatus = true;
+    return map;
+  }
 
-    map.putBoolean(STATUS_IS_LOADED_KEY_PATH, true);
-    map.putString(STATUS_ANDROID_IMPLEMENTATION_KEY_PATH, getImplementationName());
+  // Returns a full status, or null if it is identical to the last status handed to JS.
+  synchronized final WritableMap getStatusIfChanged() {
+    if (!isLoaded() || !mHasSentStatus) {
+      return getStatus();
+    }
 
-    map.putString(STATUS_URI_KEY_PATH, mUri.getPath());
+    fillCurrentStatus();
+    if (mCurrentStatus.isSameAs(mLastSentStatus)) {
+      return null;
+    }
+    final WritableMap map = Arguments.createMap();
+    mCurrentStatus.writeTo(map);
+    mLastSentStatus.copyFrom(mCurrentStatus);
+    return map;
+  }
 
-    map.putInt(STATUS_PROGRESS_UPDATE_INTERVAL_MILLIS_KEY_PATH, mProgressUpdateIntervalMillis);
-    // STATUS_DURATION_MILLIS_KEY_PATH, STATUS_POSITION_MILLIS_KEY_PATH,
-    // and STATUS_PLAYABLE_DURATION_MILLIS_KEY_PATH are set in addExtraStatusFields().
+  // Returns only the fields that changed since the last status handed to JS, flagged with
+  // isDelta, a full status if none was sent yet, or null if nothing changed.
+  synchronized final WritableMap getStatusDelta() {
+    if (!isLoaded() || !mHasSentStatus) {
+      return getStatus();
+    }
 
-    map.putBoolean(STATUS_SHOULD_PLAY_KEY_PATH, mShouldPlay);
-    // STATUS_IS_PLAYING_KEY_PATH and STATUS_IS_BUFFERING_KEY_PATH are set
-    // in addExtraStatusFields().
+    fillCurrentStatus();
+    final WritableMap map = Arguments.createMap();
+    if (mCurrentStatus.writeChangesTo(mLastSentStatus, map) == 0) {
+      return null;
+    }
+    map.putBoolean(STATUS_IS_DELTA_KEY_PATH, true);
+    mLastSentStatus.copyFrom(mCurrentStatus);
+    return map;
+  }
 
-    map.putDouble(STATUS_RATE_KEY_PATH, mRate);
-    map.putBoolean(STATUS_SHOULD_CORRECT_PITCH_KEY_PATH, mShouldCorrectPitch);
-    map.putDouble(STATUS_VOLUME_KEY_PATH, mVolume);
-    map.putBoolean(STATUS_IS_MUTED_KEY_PATH, mIsMuted);
-    // STATUS_IS_LOOPING_KEY_PATH is set in addExtraStatusFields().
+  abstract int getAudioSessionId();
 
-    map.putBoolean(STATUS_DID_JUST_FINISH_KEY_PATH, false);
+  // Null for implementations that do not collect metrics.
+  public PlaybackMetrics getMetrics() {
+    return null;
+  }
 
-    getExtraStatusFields(map);
+  // Idle eviction, see IdlePlayerEvictor.
 
-    return map;
+  final void markActive() {
+    mLastActiveUptimeMillis = SystemClock.uptimeMillis();
+    mAVModule.getIdlePlayerEvictor().onPlayersChanged();
   }
 
-  abstract int getAudioSessionId();
+  // Whether the sound holds a prepared player, which counts against the limit of the evictor.
+  boolean holdsPreparedPlayer() {
+    return false;
+  }
+
+  // Whether the player can be released now and prepared again later without JS noticing.
+  boolean canBecomeDormant() {
+    return false;
+  }
+
+  // Releases the player but keeps the sound loaded. Only called if canBecomeDormant().
+  void becomeDormant() {
+  }
+
+  boolean isDormant() {
+    return false;
+  }
+
+  // Sync groups, see SyncGroup.
+
+  abstract int getCurrentPositionMillis();
+
+  // Whether the player can start right away and keep playing for at least minBufferedMillis.
+  boolean isReadyForSyncedStart(final int minBufferedMillis) {
+    return isLoaded();
+  }
+
+  // Scales the speed of the player without changing its pitch. Returns false if unsupported.
+  boolean setSyncSpeedFactor(final float factor) {
+    return false;
+  }
+
+  // Queue, only supported by sounds loaded through createUnloadedQueuePlayerData.
+
+  public void appendToQueue(final ReactContext context, final ReadableArray sources) {
+    throw new IllegalStateException("This sound was not loaded as a queue.");
+  }
+
+  public void removeFromQueue(final int index) {
+    throw new IllegalStateException("This sound was not loaded as a queue.");
+  }
+
+  public void moveInQueue(final int fromIndex, final int toIndex) {
+    throw new IllegalStateException("This sound was not loaded as a queue.");
+  }
+
+  public void skipToQueueIndex(final int index, final Integer positionMillis) {
+    throw new IllegalStateException("This sound was not loaded as a queue.");
+  }
 
   // AudioEventHandler
 
+  public final AudioFocusRegistry.Node getAudioFocusNode() {
+    return mAudioFocusNode;
+  }
+
+  // Must be called whenever the result of requiresAudioFocus() may have changed.
+  final void updateAudioFocusRequirement() {
+    mAVModule.updateAudioFocusRequirement(mAudioFocusNode);
+  }
+
   @Override
   public final void handleAudioFocusInterruptionBegan() {
     if (!mIsMuted) {
@@ -397,6 +656,7 @@ public abstract class PlayerData implements AudioEventHandler {
     } catch (final AVModule.AudioFocusNotAcquiredException e) {
       // This is ok -- we might be paused or audio might have been disabled.
     }
+    updateAudioFocusRequirement();
   }
 
   @Override
@@ -412,6 +672,7 @@ public abstract class PlayerData implements AudioEventHandler {
       // Do nothing -- another app has audio focus for now, and handleAudioFocusGained() will be
       // called when it abandons it.
     }
+    updateAudioFocusRequirement();
   }
 
 }
@@ -0,0 +1,206 @@
+package com.reactlibrary.player;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+import com.google.android.exoplayer2.PlaybackParameters;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.SimpleExoPlayer;
+import com.google.android.exoplayer2.trackselection.AdaptiveTrackSelection;
+import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
+import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Bounded pool of idle SimpleExoPlayer instances. Building a player sets up renderers, the track
+// selector and the internal playback thread, so players are reset and reused across sounds
+// instead of being released after every unload.
+//
+// Every player loads into the shared buffer budget. Sounds with buffer settings of their own get
+// a dedicated player built for them, which is released instead of pooled on unload.
+//
+// The pool must only be used from the thread of the looper it was created with, which is also
+// the application looper of every player it hands out. Warm-up players are built on a background
+// thread and handed over to that looper.
+public class PlayerPool {
+
+  public static final int DEFAULT_MAX_SIZE = 4;
+
+  // One player at a time, as every player also starts an internal thread.
+  private static final ThreadPoolExecutor sWarmUpExecutor = new ThreadPoolExecutor(
+      1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+
+  static {
+    sWarmUpExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  private final Context mContext;
+  private final Looper mLooper;
+  private final Handler mHandler;
+  private final BufferBudget mBufferBudget;
+  private final ArrayDeque<SimpleExoPlayer> mIdlePlayers = new ArrayDeque<>();
+
+  private int mMaxSize = DEFAULT_MAX_SIZE;
+  private int mPendingWarmUpCount = 0;
+  private boolean mIsWarmingUp = false;
+  // Incremented by clear(), so that players still being built are released when handed over.
+  private int mWarmUpGeneration = 0;
+
+  private int mHitCount = 0;
+  private int mMissCount = 0;
+  private int mReturnCount = 0;
+  private int mDiscardCount = 0;
+  private int mWarmUpCount = 0;
+  private int mDedicatedCount = 0;
+  private long mTotalWarmUpMillis = 0;
+  private long mTotalMissBuildMillis = 0;
+
+  public PlayerPool(final Context context, final Looper looper, final BufferBudget bufferBudget) {
+    mContext = context.getApplicationContext();
+    mLooper = looper;
+    mHandler = new Handler(looper);
+    mBufferBudget = bufferBudget;
+  }
+
+  public Looper getLooper() {
+    return mLooper;
+  }
+
+  public void setMaxSize(final int maxSize) {
+    mMaxSize = Math.max(0, maxSize);
+    while (mIdlePlayers.size() > mMaxSize) {
+      mIdlePlayers.removeFirst().release();
+      mDiscardCount++;
+    }
+  }
+
+  // Builds up to count idle players in the background.
+  public void warmUp(final int count) {
+    mPendingWarmUpCount = Math.min(count, mMaxSize - mIdlePlayers.size());
+    if (!mIsWarmingUp) {
+      warmUpNextPlayer();
+    }
+  }
+
+  private void warmUpNextPlayer() {
+    if (mPendingWarmUpCount <= 0 || mIdlePlayers.size() >= mMaxSize) {
+      mPendingWarmUpCount = 0;
+      return;
+    }
+    mPendingWarmUpCount--;
+    mIsWarmingUp = true;
+    final int generation = mWarmUpGeneration;
+    sWarmUpExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        final long start = SystemClock.elapsedRealtime();
+        final SimpleExoPlayer player = buildPlayer(BufferLoadControl.Settings.DEFAULT);
+        final long buildMillis = SystemClock.elapsedRealtime() - start;
+        final boolean isPosted = mHandler.post(new Runnable() {
+          @Override
+          public void run() {
+            onPlayerWarmedUp(player, buildMillis, generation);
+          }
+        });
+        if (!isPosted) {
+          // The looper has quit.
+          player.release();
+        }
+      }
+    });
+  }
+
+  private void onPlayerWarmedUp(final SimpleExoPlayer player, final long buildMillis, final int generation) {
+    mIsWarmingUp = false;
+    if (generation != mWarmUpGeneration || mIdlePlayers.size() >= mMaxSize) {
+      player.release();
+    } else {
+      mIdlePlayers.addLast(player);
+      mTotalWarmUpMillis += buildMillis;
+      mWarmUpCount++;
+    }
+    warmUpNextPlayer();
+  }
+
+  SimpleExoPlayer acquire() {
+    final SimpleExoPlayer player = mIdlePlayers.pollLast();
+    if (player != null) {
+      mHitCount++;
+      return player;
+    }
+    mMissCount++;
+    final long start = SystemClock.elapsedRealtime();
+    final SimpleExoPlayer newPlayer = buildPlayer(BufferLoadControl.Settings.DEFAULT);
+    mTotalMissBuildMillis += SystemClock.elapsedRealtime() - start;
+    return newPlayer;
+  }
+
+  // The player must be returned through releaseDedicated().
+  SimpleExoPlayer acquireDedicated(final BufferLoadControl.Settings bufferSettings) {
+    mDedicatedCount++;
+    return buildPlayer(bufferSettings);
+  }
+
+  void releaseDedicated(final SimpleExoPlayer player, final Player.EventListener listener) {
+    player.removeListener(listener);
+    player.release();
+  }
+
+  // Resets the player and keeps it for the next acquire(), or releases it if the pool is full.
+  void recycle(final SimpleExoPlayer player, final Player.EventListener listener) {
+    player.removeListener(listener);
+    if (mIdlePlayers.size() >= mMaxSize || player.getApplicationLooper() != mLooper) {
+      player.release();
+      mDiscardCount++;
+      return;
+    }
+    player.stop(true);
+    player.setPlayWhenReady(false);
+    player.setRepeatMode(Player.REPEAT_MODE_OFF);
+    player.setPlaybackParameters(PlaybackParameters.DEFAULT);
+    player.setVolume(1.0f);
+    mIdlePlayers.addLast(player);
+    mReturnCount++;
+  }
+
+  public void clear() {
+    mWarmUpGeneration++;
+    mPendingWarmUpCount = 0;
+    while (!mIdlePlayers.isEmpty()) {
+      mIdlePlayers.removeFirst().release();
+    }
+  }
+
+  public WritableMap getStats() {
+    final WritableMap map = Arguments.createMap();
+    map.putInt("maxSize", mMaxSize);
+    map.putInt("idleCount", mIdlePlayers.size());
+    map.putInt("hitCount", mHitCount);
+    map.putInt("missCount", mMissCount);
+    map.putInt("returnCount", mReturnCount);
+    map.putInt("discardCount", mDiscardCount);
+    map.putInt("warmUpCount", mWarmUpCount);
+    map.putInt("dedicatedCount", mDedicatedCount);
+    map.putDouble("averageWarmUpMillis", mWarmUpCount > 0 ? (double) mTotalWarmUpMillis / mWarmUpCount : 0);
+    map.putDouble("averageMissBuildMillis", mMissCount > 0 ? (double) mTotalMissBuildMillis / mMissCount : 0);
+    return map;
+  }
+
+  private SimpleExoPlayer buildPlayer(final BufferLoadControl.Settings bufferSettings) {
+    // All players share one bandwidth meter, which also measures their data sources, so that
+    // adaptive streams start from the bandwidth estimated by previous sounds.
+    return new SimpleExoPlayer.Builder(mContext)
+        .setTrackSelector(new DefaultTrackSelector(mContext, new AdaptiveTrackSelection.Factory()))
+        .setBandwidthMeter(DefaultBandwidthMeter.getSingletonInstance(mContext))
+        .setLoadControl(new BufferLoadControl(mBufferBudget, bufferSettings))
+        .setLooper(mLooper)
+        .build();
+  }
+}
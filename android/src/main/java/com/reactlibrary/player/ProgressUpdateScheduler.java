@@ -0,0 +1,124 @@
+package com.reactlibrary.player;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+
+// Drives the progress status updates of every PlayerData from a single looper-based tick, instead
+// of a Timer thread per player and tick. Players that are due within the same grouping window
+// fire in the same tick, and a tick allocates nothing by itself. The tick stops completely once
+// no player needs progress updates.
+//
+// Must only be used from the thread of its looper.
+public class ProgressUpdateScheduler {
+
+  // Players due within this window of a tick are updated in that tick rather than in their own.
+  private static final long GROUPING_WINDOW_MILLIS = 15;
+
+  private final Handler mHandler;
+  private final ArrayList<PlayerData> mPlayers = new ArrayList<>();
+  private boolean mIsTicking = false;
+  private long mScheduledTickUptimeMillis = Long.MAX_VALUE;
+
+  private final Runnable mTickRunnable = new Runnable() {
+    @Override
+    public void run() {
+      mScheduledTickUptimeMillis = Long.MAX_VALUE;
+      tick();
+    }
+  };
+
+  public ProgressUpdateScheduler(final Looper looper) {
+    mHandler = new Handler(looper);
+  }
+
+  public Looper getLooper() {
+    return mHandler.getLooper();
+  }
+
+  // Also used by PlayerData to post deferred status updates on the same looper.
+  Handler getHandler() {
+    return mHandler;
+  }
+
+  void schedule(final PlayerData data) {
+    if (data.mIsProgressUpdateScheduled) {
+      return;
+    }
+    data.mIsProgressUpdateScheduled = true;
+    data.mNextProgressUpdateUptimeMillis = SystemClock.uptimeMillis() + data.getProgressUpdateIntervalMillis();
+    if (!data.mIsInProgressUpdateList) {
+      data.mIsInProgressUpdateList = true;
+      mPlayers.add(data);
+    }
+    scheduleTickAt(data.mNextProgressUpdateUptimeMillis);
+  }
+
+  // Removal from the list is deferred to the end of the next tick, so that players can be
+  // unscheduled from within their own status update.
+  void unschedule(final PlayerData data) {
+    data.mIsProgressUpdateScheduled = false;
+  }
+
+  public int getScheduledCount() {
+    int count = 0;
+    for (int i = 0; i < mPlayers.size(); i++) {
+      if (mPlayers.get(i).mIsProgressUpdateScheduled) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private void tick() {
+    mIsTicking = true;
+    final long now = SystemClock.uptimeMillis();
+    // The list may grow while iterating if a status update schedules another player.
+    for (int i = 0; i < mPlayers.size(); i++) {
+      final PlayerData data = mPlayers.get(i);
+      if (!data.mIsProgressUpdateScheduled
+          || data.mNextProgressUpdateUptimeMillis > now + GROUPING_WINDOW_MILLIS) {
+        continue;
+      }
+      if (data.shouldContinueUpdatingProgress()) {
+        data.onProgressUpdateTick();
+        data.mNextProgressUpdateUptimeMillis = now + data.getProgressUpdateIntervalMillis();
+      } else {
+        data.mIsProgressUpdateScheduled = false;
+      }
+    }
+    mIsTicking = false;
+
+    // Compact the list in place and find the next due time.
+    long nextTickUptimeMillis = Long.MAX_VALUE;
+    int size = 0;
+    for (int i = 0; i < mPlayers.size(); i++) {
+      final PlayerData data = mPlayers.get(i);
+      if (data.mIsProgressUpdateScheduled) {
+        mPlayers.set(size++, data);
+        nextTickUptimeMillis = Math.min(nextTickUptimeMillis, data.mNextProgressUpdateUptimeMillis);
+      } else {
+        data.mIsInProgressUpdateList = false;
+      }
+    }
+    for (int i = mPlayers.size() - 1; i >= size; i--) {
+      mPlayers.remove(i);
+    }
+
+    if (nextTickUptimeMillis != Long.MAX_VALUE) {
+      scheduleTickAt(nextTickUptimeMillis);
+    }
+  }
+
+  private void scheduleTickAt(final long uptimeMillis) {
+    if (mIsTicking || uptimeMillis >= mScheduledTickUptimeMillis) {
+      // The end of the current tick, or the already scheduled one, picks it up.
+      return;
+    }
+    mHandler.removeCallbacks(mTickRunnable);
+    mScheduledTickUptimeMillis = uptimeMillis;
+    mHandler.postAtTime(mTickRunnable, uptimeMillis);
+  }
+}
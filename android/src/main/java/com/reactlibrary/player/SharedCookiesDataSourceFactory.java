@@ -22,8 +22,17 @@ public class SharedCookiesDataSourceFactory implements DataSource.Factory {
   private static final String TAG = "PakExo";
 
   public SharedCookiesDataSourceFactory(Uri uri, ReactContext reactApplicationContext, String userAgent) {
+    this(uri, reactApplicationContext, userAgent, true);
+  }
+
+  public SharedCookiesDataSourceFactory(Uri uri, ReactContext reactApplicationContext, String userAgent,
+                                        boolean isCached) {
     if (uri.getScheme() != null && (uri.getScheme().equals("http") || uri.getScheme().equals("https"))) {
-      mDataSourceFactory = new DefaultHttpDataSourceFactory(userAgent);
+      // Http sources go through the module-wide media cache so repeated plays are served from disk.
+      final DataSource.Factory httpDataSourceFactory = new DefaultHttpDataSourceFactory(userAgent);
+      mDataSourceFactory = isCached
+          ? MediaCache.buildDataSourceFactory(reactApplicationContext, httpDataSourceFactory)
+          : httpDataSourceFactory;
     } else {
 
       DefaultBandwidthMeter bandwidthMeter = new DefaultBandwidthMeter();
@@ -10,6 +10,7 @@ import android.util.Pair;
 import android.view.Surface;
 
 import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.WritableMap;
 import com.google.android.exoplayer2.C;
@@ -22,8 +23,10 @@ import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.Timeline;
 import com.google.android.exoplayer2.extractor.DefaultExtractorsFactory;
+import com.google.android.exoplayer2.source.ConcatenatingMediaSource;
 import com.google.android.exoplayer2.source.ExtractorMediaSource;
 import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.source.ShuffleOrder;
 import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.source.dash.DashMediaSource;
 import com.google.android.exoplayer2.source.dash.DefaultDashChunkSource;
@@ -45,6 +48,8 @@ import com.google.android.exoplayer2.util.Util;
 import android.util.Log;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.reactlibrary.AVModule;
 
@@ -52,6 +57,8 @@ class SimpleExoPlayerData extends PlayerData
     implements Player.EventListener, ExtractorMediaSource.EventListener {
 
   private static final String IMPLEMENTATION_NAME = "SimpleExoPlayer";
+  private static final String SHOULD_PREPARE_LAZILY_KEY_PATH = "shouldPrepareLazily";
+  private static final String PREBUFFER_MILLIS_KEY_PATH = "prebufferMillis";
 
   private SimpleExoPlayer mSimpleExoPlayer = null;
   private String mOverridingExtension;
@@ -60,15 +67,38 @@ class SimpleExoPlayerData extends PlayerData
   private boolean mIsLooping = false;
   private boolean mIsLoading = true;
   private ReactContext mReactContext;
+  private Handler mEventHandler = null;
+  // Only set for queues, whose items are played gaplessly through one concatenated source.
+  private final List<QueueItem> mQueueItems;
+  private ConcatenatingMediaSource mQueueSource = null;
+  // Set by a SyncGroup to pull the player back in sync.
+  private float mSyncSpeedFactor = 1.0f;
+  private PlaybackMetrics mMetrics = null;
+  // Set if the sound has buffer settings of its own, which pooled players cannot take.
+  private BufferLoadControl.Settings mBufferSettings = null;
+  private boolean mHasDedicatedPlayer = false;
+  // Set while the player is released by the IdlePlayerEvictor, with the status it had then.
+  private boolean mIsDormant = false;
+  private int mDormantPositionMillis = 0;
+  private boolean mDormantHasDuration = false;
+  private int mDormantDurationMillis = 0;
+  // Only set while a lazily loaded sound is probed or prebuffered.
+  private MetadataProbe mMetadataProbe = null;
 
   private static final String TAG = "PakExo";
-  // Measures bandwidth during playback. Can be null if not required.
-  private static final DefaultBandwidthMeter BANDWIDTH_METER = new DefaultBandwidthMeter();
 
   SimpleExoPlayerData(final AVModule avModule, final ReactContext context, final Uri uri, final String overridingExtension) {
     super(avModule, uri);
     mReactContext = context;
     mOverridingExtension = overridingExtension;
+    mQueueItems = null;
+  }
+
+  SimpleExoPlayerData(final AVModule avModule, final ReactContext context, final List<QueueItem> queueItems) {
+    super(avModule, queueItems.get(0).uri);
+    mReactContext = context;
+    mOverridingExtension = queueItems.get(0).overridingExtension;
+    mQueueItems = new ArrayList<>(queueItems);
   }
 
   @Override
@@ -89,23 +119,22 @@ class SimpleExoPlayerData extends PlayerData
   public void load(final ReadableMap status, final LoadCompletionListener loadCompletionListener) {
     mLoadCompletionListener = loadCompletionListener;
 
-    // Create a default TrackSelector
-    final Handler mainHandler = new Handler();
-    final TrackSelector trackSelector = new DefaultTrackSelector(mReactContext);
+    // Source events are delivered on the shared playback looper instead of a Handler per load.
+    mEventHandler = mAVModule.getProgressUpdateScheduler().getHandler();
 
-    // Create the player
-    mSimpleExoPlayer = new SimpleExoPlayer.Builder(mReactContext).build();
-    mSimpleExoPlayer.addListener(this);
+    mBufferSettings = BufferLoadControl.Settings.fromStatus(status);
+    mHasDedicatedPlayer = mBufferSettings != null;
+    mMetrics = new PlaybackMetrics();
 
-    // Produces DataSource instances through which media data is loaded.
-    final DataSource.Factory dataSourceFactory = new SharedCookiesDataSourceFactory(mUri, mReactContext, Util.getUserAgent(mReactContext, "yourApplicationName"));
+    final boolean shouldPlay = status.hasKey(STATUS_SHOULD_PLAY_KEY_PATH) && status.getBoolean(STATUS_SHOULD_PLAY_KEY_PATH);
+    if (mQueueItems == null && !shouldPlay
+        && status.hasKey(SHOULD_PREPARE_LAZILY_KEY_PATH) && status.getBoolean(SHOULD_PREPARE_LAZILY_KEY_PATH)) {
+      loadLazily(status);
+      return;
+    }
 
     try {
-      // This is the MediaSource representing the media to be played.
-      final MediaSource source = buildMediaSource(mUri, mOverridingExtension, mainHandler, dataSourceFactory);
-      mSimpleExoPlayer.setMediaSource(source);
-      // Prepare the player with the source.
-      mSimpleExoPlayer.prepare();
+      preparePlayer(null);
       setStatus(status, null);
     } catch (IllegalStateException e) {
       Log.d(TAG, "pak exception when mSimpleExoPlayer.prepare");
@@ -113,12 +142,137 @@ class SimpleExoPlayerData extends PlayerData
     }
   }
 
+  // Answers the load once the metadata is probed, and leaves the sound dormant until it plays or
+  // seeks for the first time.
+  private void loadLazily(final ReadableMap status) {
+    mIsDormant = true;
+    mDormantPositionMillis = 0;
+    mDormantHasDuration = false;
+    mDormantDurationMillis = 0;
+    setStatus(status, null);
+
+    // Only media that goes through the media cache can be prebuffered into it.
+    final long prebufferMillis = status.hasKey(PREBUFFER_MILLIS_KEY_PATH) && isCached(mUri, mOverridingExtension)
+        ? (long) status.getDouble(PREBUFFER_MILLIS_KEY_PATH) : 0;
+    mMetadataProbe = MetadataProbe.start(mUri, buildDataSourceFactory(mUri, mOverridingExtension), prebufferMillis,
+        mEventHandler,
+        new MetadataProbe.Listener() {
+          @Override
+          public void onProbeComplete(final long durationMillis) {
+            if (mLoadCompletionListener == null) {
+              return;
+            }
+            mDormantHasDuration = durationMillis != C.TIME_UNSET;
+            mDormantDurationMillis = mDormantHasDuration ? (int) durationMillis : 0;
+            final LoadCompletionListener listener = mLoadCompletionListener;
+            mLoadCompletionListener = null;
+            listener.onLoadSuccess(getStatus());
+          }
+
+          @Override
+          public void onProbeError(final String error) {
+            onFatalError(new IOException(error));
+          }
+        });
+  }
+
+  // Borrows a player and prepares it with the media, from positionMillis if it is set.
+  private void preparePlayer(final Integer positionMillis) {
+    // Borrow a player from the pool, which builds a new one if no idle player is available.
+    mSimpleExoPlayer = mHasDedicatedPlayer
+        ? mAVModule.getPlayerPool().acquireDedicated(mBufferSettings)
+        : mAVModule.getPlayerPool().acquire();
+    mSimpleExoPlayer.addListener(this);
+    mSimpleExoPlayer.addAnalyticsListener(mMetrics);
+
+    // This is the MediaSource representing the media to be played.
+    final MediaSource source;
+    if (mQueueItems != null) {
+      // Items are prepared lazily, so the player buffers the next item while the current one
+      // plays and moves on without a gap.
+      mQueueSource = new ConcatenatingMediaSource(/* isAtomic= */ false, /* useLazyPreparation= */ true,
+          new ShuffleOrder.DefaultShuffleOrder(0));
+      mQueueSource.addMediaSources(buildMediaSources(mQueueItems));
+      source = mQueueSource;
+    } else {
+      source = buildMediaSource(mUri, mOverridingExtension, mEventHandler);
+    }
+    mSimpleExoPlayer.setMediaSource(source);
+    if (positionMillis != null) {
+      mSimpleExoPlayer.seekTo(positionMillis);
+    }
+    // Prepare the player with the source.
+    mSimpleExoPlayer.prepare();
+  }
+
+  // Idle eviction
+
+  @Override
+  boolean holdsPreparedPlayer() {
+    return mSimpleExoPlayer != null;
+  }
+
+  // Queues and live streams cannot be resumed from a remembered position, and loads in progress
+  // must be answered first.
+  @Override
+  boolean canBecomeDormant() {
+    return mSimpleExoPlayer != null
+        && mLoadCompletionListener == null
+        && mQueueItems == null
+        && !mSimpleExoPlayer.isCurrentWindowLive()
+        && (!mSimpleExoPlayer.getPlayWhenReady() || mSimpleExoPlayer.getPlaybackState() == Player.STATE_ENDED);
+  }
+
+  @Override
+  synchronized void becomeDormant() {
+    final long duration = mSimpleExoPlayer.getDuration();
+    mDormantHasDuration = duration != C.TIME_UNSET;
+    mDormantDurationMillis = mDormantHasDuration ? (int) duration : 0;
+    mDormantPositionMillis = (int) mSimpleExoPlayer.getCurrentPosition();
+    release();
+    mIsDormant = true;
+    mIsLoading = false;
+    mLastPlaybackState = null;
+    callStatusUpdateListener();
+  }
+
+  private void cancelMetadataProbe() {
+    if (mMetadataProbe != null) {
+      mMetadataProbe.cancel();
+      mMetadataProbe = null;
+    }
+  }
+
+  @Override
+  boolean isDormant() {
+    return mIsDormant;
+  }
+
+  // Prepares the player again at positionMillis, with the looping mode it had. The other settings
+  // are applied by the status that woke it.
+  private void wakeFromDormancy(final int positionMillis) {
+    cancelMetadataProbe();
+    mIsDormant = false;
+    preparePlayer(positionMillis);
+    mSimpleExoPlayer.setRepeatMode(mIsLooping ? Player.REPEAT_MODE_ALL : Player.REPEAT_MODE_OFF);
+  }
+
   @Override
   public synchronized void release() {
+    cancelMetadataProbe();
+    mIsDormant = false;
+    stopUpdatingProgressIfNecessary();
+    mQueueSource = null;
     if (mSimpleExoPlayer != null) {
-      mSimpleExoPlayer.release();
+      mSimpleExoPlayer.removeAnalyticsListener(mMetrics);
+      if (mHasDedicatedPlayer) {
+        mAVModule.getPlayerPool().releaseDedicated(mSimpleExoPlayer, this);
+      } else {
+        mAVModule.getPlayerPool().recycle(mSimpleExoPlayer, this);
+      }
       mSimpleExoPlayer = null;
     }
+    updateAudioFocusRequirement();
   }
 
   @Override
@@ -140,7 +294,7 @@ class SimpleExoPlayerData extends PlayerData
 
     updateVolumeMuteAndDuck();
 
-    mSimpleExoPlayer.setPlaybackParameters(new PlaybackParameters(mRate, mShouldCorrectPitch ? 1.0f : mRate));
+    mSimpleExoPlayer.setPlaybackParameters(getPlaybackParameters());
 
     mSimpleExoPlayer.setPlayWhenReady(mShouldPlay);
 
@@ -150,6 +304,20 @@ class SimpleExoPlayerData extends PlayerData
   @Override
   void applyNewStatus(final Integer newPositionMillis, final Boolean newIsLooping)
       throws AVModule.AudioFocusNotAcquiredException, IllegalStateException {
+    if (mIsDormant) {
+      if (mLoadCompletionListener != null || (newPositionMillis == null && !shouldPlayerPlay())) {
+        // Stays dormant, the settings are applied once it plays or seeks after its load.
+        if (newPositionMillis != null) {
+          mDormantPositionMillis = newPositionMillis;
+        }
+        if (newIsLooping != null) {
+          mIsLooping = newIsLooping;
+        }
+        return;
+      }
+      wakeFromDormancy(newPositionMillis != null ? newPositionMillis : mDormantPositionMillis);
+    }
+
     //pak here is an error!
     if (mSimpleExoPlayer == null) {
       throw new IllegalStateException("mSimpleExoPlayer is null!");
@@ -188,25 +356,147 @@ class SimpleExoPlayerData extends PlayerData
 
   @Override
   boolean isLoaded() {
-    return mSimpleExoPlayer != null;
+    return mSimpleExoPlayer != null || mIsDormant;
   }
 
   @Override
-  void getExtraStatusFields(final WritableMap map) {
-    // TODO handle different timeline cases for streaming
-    final int duration = (int) mSimpleExoPlayer.getDuration();
-    map.putInt(STATUS_DURATION_MILLIS_KEY_PATH, duration);
-    map.putInt(STATUS_POSITION_MILLIS_KEY_PATH,
-        getClippedIntegerForValue((int) mSimpleExoPlayer.getCurrentPosition(), 0, duration));
-    map.putInt(STATUS_PLAYABLE_DURATION_MILLIS_KEY_PATH,
-        getClippedIntegerForValue((int) mSimpleExoPlayer.getBufferedPosition(), 0, duration));
+  void getExtraStatusFields(final PlaybackStatus status) {
+    if (mIsDormant) {
+      status.isDormant = true;
+      status.hasDuration = mDormantHasDuration;
+      status.durationMillis = mDormantDurationMillis;
+      status.positionMillis = mDormantPositionMillis;
+      status.playableDurationMillis = mDormantPositionMillis;
+      status.isPlaying = false;
+      status.isBuffering = false;
+      status.isLooping = mIsLooping;
+      return;
+    }
+    // Live streams have no duration, and their position is relative to the live window.
+    final long duration = mSimpleExoPlayer.getDuration();
+    status.isLive = mSimpleExoPlayer.isCurrentWindowLive();
+    status.hasDuration = duration != C.TIME_UNSET;
+    final Integer maxPosition = status.hasDuration ? (int) duration : null;
+    status.durationMillis = status.hasDuration ? (int) duration : 0;
+    status.positionMillis = getClippedIntegerForValue((int) mSimpleExoPlayer.getCurrentPosition(), 0, maxPosition);
+    status.playableDurationMillis = getClippedIntegerForValue((int) mSimpleExoPlayer.getBufferedPosition(), 0, maxPosition);
+
+    final Format audioFormat = mSimpleExoPlayer.getAudioFormat();
+    status.bitrate = audioFormat != null && audioFormat.bitrate != Format.NO_VALUE ? audioFormat.bitrate : 0;
+
+    status.isPlaying = mSimpleExoPlayer.getPlayWhenReady() && mSimpleExoPlayer.getPlaybackState() == Player.STATE_READY;
+    status.isBuffering = mIsLoading || mSimpleExoPlayer.getPlaybackState() == Player.STATE_BUFFERING;
+
+    status.isLooping = mIsLooping;
+
+    if (mQueueItems != null) {
+      status.queueIndex = mSimpleExoPlayer.getCurrentWindowIndex();
+      status.queueLength = mQueueItems.size();
+    }
+  }
 
-    map.putBoolean(STATUS_IS_PLAYING_KEY_PATH,
-        mSimpleExoPlayer.getPlayWhenReady() && mSimpleExoPlayer.getPlaybackState() == Player.STATE_READY);
-    map.putBoolean(STATUS_IS_BUFFERING_KEY_PATH,
-        mIsLoading || mSimpleExoPlayer.getPlaybackState() == Player.STATE_BUFFERING);
+  private PlaybackParameters getPlaybackParameters() {
+    return new PlaybackParameters(mRate * mSyncSpeedFactor, mShouldCorrectPitch ? 1.0f : mRate);
+  }
 
-    map.putBoolean(STATUS_IS_LOOPING_KEY_PATH, mIsLooping);
+  @Override
+  public PlaybackMetrics getMetrics() {
+    return mMetrics;
+  }
+
+  // Sync groups
+
+  @Override
+  int getCurrentPositionMillis() {
+    if (mIsDormant) {
+      return mDormantPositionMillis;
+    }
+    return mSimpleExoPlayer != null ? (int) mSimpleExoPlayer.getCurrentPosition() : 0;
+  }
+
+  @Override
+  boolean isReadyForSyncedStart(final int minBufferedMillis) {
+    if (mSimpleExoPlayer == null || mSimpleExoPlayer.getPlaybackState() != Player.STATE_READY) {
+      return false;
+    }
+    final long duration = mSimpleExoPlayer.getDuration();
+    final long bufferedPosition = mSimpleExoPlayer.getBufferedPosition();
+    return bufferedPosition - mSimpleExoPlayer.getCurrentPosition() >= minBufferedMillis
+        || (duration != C.TIME_UNSET && bufferedPosition >= duration);
+  }
+
+  @Override
+  boolean setSyncSpeedFactor(final float factor) {
+    if (factor != mSyncSpeedFactor) {
+      mSyncSpeedFactor = factor;
+      if (mSimpleExoPlayer != null) {
+        mSimpleExoPlayer.setPlaybackParameters(getPlaybackParameters());
+      }
+    }
+    return true;
+  }
+
+  @Override
+  Uri getCurrentUri() {
+    if (mQueueItems != null && mSimpleExoPlayer != null) {
+      final int index = mSimpleExoPlayer.getCurrentWindowIndex();
+      if (index >= 0 && index < mQueueItems.size()) {
+        return mQueueItems.get(index).uri;
+      }
+    }
+    return mUri;
+  }
+
+  // Queue
+
+  private void assertIsLoadedQueue() {
+    if (mQueueItems == null) {
+      throw new IllegalStateException("This sound was not loaded as a queue.");
+    }
+    if (mQueueSource == null || mSimpleExoPlayer == null) {
+      throw new IllegalStateException("The queue is not loaded.");
+    }
+  }
+
+  private void assertIsQueueIndex(final int index) {
+    if (index < 0 || index >= mQueueItems.size()) {
+      throw new IndexOutOfBoundsException("Queue index " + index + " is out of bounds.");
+    }
+  }
+
+  @Override
+  public void appendToQueue(final ReactContext context, final ReadableArray sources) {
+    assertIsLoadedQueue();
+    final List<QueueItem> items = getQueueItemsForSources(context, sources);
+    mQueueItems.addAll(items);
+    mQueueSource.addMediaSources(buildMediaSources(items));
+  }
+
+  @Override
+  public void removeFromQueue(final int index) {
+    assertIsLoadedQueue();
+    assertIsQueueIndex(index);
+    if (mQueueItems.size() == 1) {
+      throw new IllegalStateException("Cannot remove the last item of a queue, unload the sound instead.");
+    }
+    mQueueItems.remove(index);
+    mQueueSource.removeMediaSource(index);
+  }
+
+  @Override
+  public void moveInQueue(final int fromIndex, final int toIndex) {
+    assertIsLoadedQueue();
+    assertIsQueueIndex(fromIndex);
+    assertIsQueueIndex(toIndex);
+    mQueueItems.add(toIndex, mQueueItems.remove(fromIndex));
+    mQueueSource.moveMediaSource(fromIndex, toIndex);
+  }
+
+  @Override
+  public void skipToQueueIndex(final int index, final Integer positionMillis) {
+    assertIsLoadedQueue();
+    assertIsQueueIndex(index);
+    mSimpleExoPlayer.seekTo(index, positionMillis != null ? positionMillis : 0);
   }
 
   @Override
@@ -224,6 +514,7 @@ class SimpleExoPlayerData extends PlayerData
       mSimpleExoPlayer.setPlayWhenReady(false);
     }
     stopUpdatingProgressIfNecessary();
+    updateAudioFocusRequirement();
   }
 
   @Override
@@ -266,7 +557,8 @@ class SimpleExoPlayerData extends PlayerData
 
   @Override
   public void onTimelineChanged(Timeline timeline, Object manifest, int reason) {
-
+    // Queue changes and durations becoming known.
+    callStatusUpdateListener();
   }
 
   @Override
@@ -277,6 +569,7 @@ class SimpleExoPlayerData extends PlayerData
 
   @Override
   public void onPlayerStateChanged(final boolean playWhenReady, final int playbackState) {
+    markActive();
     if (playbackState == Player.STATE_READY && mLoadCompletionListener != null) {
       final LoadCompletionListener listener = mLoadCompletionListener;
       mLoadCompletionListener = null;
@@ -297,12 +590,20 @@ class SimpleExoPlayerData extends PlayerData
 
   @Override
   public void onPlayerError(final ExoPlaybackException error) {
-    mErrorListener.onError("Player error: " + error.getMessage());
+    if (mLoadCompletionListener != null) {
+      // Fails the pending load instead of leaving it unanswered.
+      onFatalError(error);
+      return;
+    }
+    if (mErrorListener != null) {
+      mErrorListener.onError("Player error: " + error.getMessage());
+    }
   }
 
   @Override
   public void onPositionDiscontinuity(int reason) {
-
+    // Seeks and loop wrap-arounds invalidate the position JS extrapolates.
+    callStatusUpdateListener();
   }
 
   // ExtractorMediaSource.EventListener
@@ -319,15 +620,55 @@ class SimpleExoPlayerData extends PlayerData
       final LoadCompletionListener listener = mLoadCompletionListener;
       mLoadCompletionListener = null;
       listener.onLoadError(error.toString());
+    } else if (mErrorListener != null) {
+      // Removes the sound from the module instead of leaving it there unloaded.
+      mErrorListener.onError(error.toString());
     }
     release();
   }
 
+  private static int inferContentType(final Uri uri, final String overridingExtension) {
+    return TextUtils.isEmpty(overridingExtension)
+        ? Util.inferContentType(String.valueOf(uri)) : Util.inferContentType("." + overridingExtension);
+  }
+
+  // Adaptive manifests and live playlists change over time and must not be replayed from disk, so
+  // adaptive sources bypass the media cache altogether.
+  private static boolean isCached(final Uri uri, final String overridingExtension) {
+    return inferContentType(uri, overridingExtension) == C.TYPE_OTHER;
+  }
+
+  private DataSource.Factory buildDataSourceFactory(final Uri uri, final String overridingExtension) {
+    // Produces DataSource instances through which media data is loaded.
+    return new SharedCookiesDataSourceFactory(uri, mReactContext, DataSourceUtil.getUserAgent(mReactContext),
+        isCached(uri, overridingExtension));
+  }
+
+  private List<MediaSource> buildMediaSources(final List<QueueItem> items) {
+    final List<MediaSource> sources = new ArrayList<>(items.size());
+    for (final QueueItem item : items) {
+      sources.add(buildMediaSource(item.uri, item.overridingExtension, mEventHandler));
+    }
+    return sources;
+  }
+
   // https://github.com/google/ExoPlayer/blob/2b20780482a9c6b07416bcbf4de829532859d10a/demos/main/src/main/java/com/google/android/exoplayer2/demo/PlayerActivity.java#L365-L393
-  private MediaSource buildMediaSource(Uri uri, String overrideExtension, Handler mainHandler, DataSource.Factory factory) {
-    @C.ContentType int type = TextUtils.isEmpty(overrideExtension) ? Util.inferContentType(String.valueOf(uri)) : Util.inferContentType("." + overrideExtension);
+  private MediaSource buildMediaSource(Uri uri, String overrideExtension, Handler mainHandler) {
+    @C.ContentType int type = inferContentType(uri, overrideExtension);
+    final DataSource.Factory factory = buildDataSourceFactory(uri, overrideExtension);
 
+    // Adaptive sources switch between audio renditions based on the bandwidth measured by the
+    // player's shared bandwidth meter, see PlayerPool.
     switch (type) {
+      case C.TYPE_DASH:
+        return new DashMediaSource.Factory(new DefaultDashChunkSource.Factory(factory), factory)
+            .createMediaSource(MediaItem.fromUri(uri));
+      case C.TYPE_SS:
+        return new SsMediaSource.Factory(new DefaultSsChunkSource.Factory(factory), factory)
+            .createMediaSource(MediaItem.fromUri(uri));
+      case C.TYPE_HLS:
+        return new HlsMediaSource.Factory(factory)
+            .createMediaSource(MediaItem.fromUri(uri));
       case C.TYPE_OTHER://this one is ours 3
         return new ExtractorMediaSource(uri, factory, new DefaultExtractorsFactory(), mainHandler, this);
       default: {
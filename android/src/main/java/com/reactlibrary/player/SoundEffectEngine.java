@@ -0,0 +1,506 @@
+package com.reactlibrary.player;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.net.Uri;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Plays short sound effects from memory with low latency. Clips are decoded once into PCM at the
+// output sample rate and shared by every sound playing the same uri. Playing voices are mixed on a
+// dedicated audio-priority thread into a single low-latency AudioTrack, which is paused while no
+// voice plays. When all voices are busy, starting a new one steals the oldest. Decoded clips are
+// also kept in a DecodedAudioCache after their last sound is unloaded.
+public class SoundEffectEngine {
+
+  public static final int DEFAULT_MAX_VOICES = 16;
+  public static final long MAX_CLIP_DURATION_MILLIS = 30000;
+
+  private static final String TAG = "PakExo";
+  private static final int DEFAULT_FRAMES_PER_BURST = 256;
+
+  public interface ClipCallback {
+    void onClipLoaded(final DecodedClip clip);
+
+    void onClipError(final String error);
+  }
+
+  // Called on the mixer thread, so implementations should only hand the event over to their own
+  // thread.
+  public interface VoiceListener {
+    void onVoiceFinished(final int voiceId);
+
+    void onVoiceStolen(final int voiceId, final double positionFrames);
+  }
+
+  private static final class ClipEntry {
+    final String key;
+    DecodedClip clip = null;
+    int refCount = 0;
+    final List<ClipCallback> pendingCallbacks = new ArrayList<>();
+
+    ClipEntry(final String key) {
+      this.key = key;
+    }
+  }
+
+  private static final class Voice {
+    int id = 0;
+    DecodedClip clip = null;
+    VoiceListener listener = null;
+    double positionFrames = 0;
+    float rate = 1.0f;
+    float volume = 1.0f;
+    boolean isLooping = false;
+  }
+
+  private final Context mContext;
+  private final DecodedAudioCache mDecodedAudioCache;
+  private final int mSampleRate;
+  private final int mFramesPerBurst;
+  private final ExecutorService mDecodeExecutor = Executors.newSingleThreadExecutor();
+  private final Map<String, ClipEntry> mClips = new HashMap<>();
+
+  // Guarded by mLock, which is held by the mixer thread only while mixing one burst.
+  private final Object mLock = new Object();
+  private final Voice[] mVoices;
+  private int mActiveVoiceCount = 0;
+  private int mNextVoiceId = 1;
+  private boolean mIsRunning = false;
+  private AudioTrack mAudioTrack = null;
+  private Thread mMixerThread = null;
+
+  // Only touched by the mixer thread.
+  private final float[] mMixBuffer;
+  private final short[] mOutputBuffer;
+  private final VoiceListener[] mFinishedListeners;
+  private final int[] mFinishedVoiceIds;
+
+  public SoundEffectEngine(final Context context, final int maxVoices, final DecodedAudioCache decodedAudioCache) {
+    mContext = context.getApplicationContext();
+    mDecodedAudioCache = decodedAudioCache;
+    final AudioManager audioManager = (AudioManager) mContext.getSystemService(Context.AUDIO_SERVICE);
+    mSampleRate = AudioTrack.getNativeOutputSampleRate(AudioManager.STREAM_MUSIC);
+    mFramesPerBurst = getIntProperty(audioManager, AudioManager.PROPERTY_OUTPUT_FRAMES_PER_BUFFER, DEFAULT_FRAMES_PER_BURST);
+
+    mVoices = new Voice[Math.max(1, maxVoices)];
+    for (int i = 0; i < mVoices.length; i++) {
+      mVoices[i] = new Voice();
+    }
+    mFinishedListeners = new VoiceListener[mVoices.length];
+    mFinishedVoiceIds = new int[mVoices.length];
+    mMixBuffer = new float[mFramesPerBurst * DecodedClip.CHANNEL_COUNT];
+    mOutputBuffer = new short[mFramesPerBurst * DecodedClip.CHANNEL_COUNT];
+  }
+
+  private static int getIntProperty(final AudioManager audioManager, final String key, final int defaultValue) {
+    try {
+      final String value = audioManager.getProperty(key);
+      return value != null ? Integer.parseInt(value) : defaultValue;
+    } catch (final NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  public int getSampleRate() {
+    return mSampleRate;
+  }
+
+  public int getMaxVoices() {
+    return mVoices.length;
+  }
+
+  public int getActiveVoiceCount() {
+    synchronized (mLock) {
+      return mActiveVoiceCount;
+    }
+  }
+
+  // Clips
+
+  // Decodes the clip on a background thread unless another sound holds it already or it is
+  // cached. The callback may be called synchronously, or later on the decoding thread. The
+  // returned token is passed back to releaseClip.
+  Object acquireClip(final Uri uri, final ClipCallback callback) {
+    final String key = DecodedAudioCache.getKey(uri, mSampleRate);
+    final ClipEntry entry;
+    final DecodedClip clip;
+    synchronized (mClips) {
+      ClipEntry existingEntry = mClips.get(key);
+      if (existingEntry == null) {
+        existingEntry = new ClipEntry(key);
+        mClips.put(key, existingEntry);
+        existingEntry.clip = mDecodedAudioCache.get(key);
+        if (existingEntry.clip == null) {
+          decodeClip(existingEntry, uri);
+        }
+      } else {
+        mDecodedAudioCache.recordHit();
+      }
+      entry = existingEntry;
+      entry.refCount++;
+      clip = entry.clip;
+      if (clip == null) {
+        entry.pendingCallbacks.add(callback);
+      }
+    }
+    if (clip != null) {
+      callback.onClipLoaded(clip);
+    }
+    return entry;
+  }
+
+  void releaseClip(final Object token, final ClipCallback callback) {
+    final ClipEntry entry = (ClipEntry) token;
+    synchronized (mClips) {
+      entry.pendingCallbacks.remove(callback);
+      entry.refCount--;
+      if (entry.refCount <= 0 && entry.clip != null && mClips.get(entry.key) == entry) {
+        mClips.remove(entry.key);
+      }
+    }
+  }
+
+  private void decodeClip(final ClipEntry entry, final Uri uri) {
+    mDecodeExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        DecodedClip clip = null;
+        String error = null;
+        try {
+          clip = PcmDecoder.decode(mContext, uri, mSampleRate, MAX_CLIP_DURATION_MILLIS,
+              mDecodedAudioCache.shouldUseDirectBuffers());
+          mDecodedAudioCache.put(entry.key, clip);
+        } catch (final IOException | RuntimeException e) {
+          Log.d(TAG, "Could not decode sound effect " + uri + ": " + e);
+          error = e.toString();
+        }
+
+        final List<ClipCallback> callbacks;
+        synchronized (mClips) {
+          callbacks = new ArrayList<>(entry.pendingCallbacks);
+          entry.pendingCallbacks.clear();
+          if (clip != null) {
+            entry.clip = clip;
+          }
+          // Failed clips are dropped so that a later load retries, and so are clips whose sounds
+          // were all unloaded while decoding.
+          if ((clip == null || entry.refCount <= 0) && mClips.get(entry.key) == entry) {
+            mClips.remove(entry.key);
+          }
+        }
+        for (final ClipCallback callback : callbacks) {
+          if (clip != null) {
+            callback.onClipLoaded(clip);
+          } else {
+            callback.onClipError(error);
+          }
+        }
+      }
+    });
+  }
+
+  // Voices
+
+  // Returns the id of the voice, which identifies it in all other voice methods.
+  int play(final DecodedClip clip, final double positionFrames, final float rate, final float volume,
+           final boolean isLooping, final VoiceListener listener) {
+    Voice stolenVoice = null;
+    int stolenVoiceId = 0;
+    double stolenPositionFrames = 0;
+    VoiceListener stolenListener = null;
+    final int id;
+
+    synchronized (mLock) {
+      startIfNecessary();
+
+      Voice voice = null;
+      for (final Voice candidate : mVoices) {
+        if (candidate.clip == null) {
+          voice = candidate;
+          break;
+        }
+        // Voice ids grow monotonically, so the smallest id is the oldest voice.
+        if (stolenVoice == null || candidate.id < stolenVoice.id) {
+          stolenVoice = candidate;
+        }
+      }
+      if (voice == null) {
+        voice = stolenVoice;
+        stolenVoiceId = stolenVoice.id;
+        stolenPositionFrames = stolenVoice.positionFrames;
+        stolenListener = stolenVoice.listener;
+        mActiveVoiceCount--;
+      } else {
+        stolenVoice = null;
+      }
+
+      id = mNextVoiceId++;
+      voice.id = id;
+      voice.clip = clip;
+      voice.listener = listener;
+      voice.positionFrames = Math.max(0, Math.min(positionFrames, clip.frameCount));
+      voice.rate = rate;
+      voice.volume = volume;
+      voice.isLooping = isLooping;
+      mActiveVoiceCount++;
+      mLock.notifyAll();
+    }
+
+    if (stolenListener != null) {
+      stolenListener.onVoiceStolen(stolenVoiceId, stolenPositionFrames);
+    }
+    return id;
+  }
+
+  // Stops the voice and returns its position, or -1 if it already finished or was stolen.
+  double stop(final int voiceId) {
+    synchronized (mLock) {
+      final Voice voice = findVoice(voiceId);
+      if (voice == null) {
+        return -1;
+      }
+      final double positionFrames = voice.positionFrames;
+      clearVoice(voice);
+      return positionFrames;
+    }
+  }
+
+  // Returns the position of the voice, or -1 if it already finished or was stolen.
+  double getPositionFrames(final int voiceId) {
+    synchronized (mLock) {
+      final Voice voice = findVoice(voiceId);
+      return voice != null ? voice.positionFrames : -1;
+    }
+  }
+
+  void setVolume(final int voiceId, final float volume) {
+    synchronized (mLock) {
+      final Voice voice = findVoice(voiceId);
+      if (voice != null) {
+        voice.volume = volume;
+      }
+    }
+  }
+
+  void setRate(final int voiceId, final float rate) {
+    synchronized (mLock) {
+      final Voice voice = findVoice(voiceId);
+      if (voice != null) {
+        voice.rate = rate;
+      }
+    }
+  }
+
+  void setLooping(final int voiceId, final boolean isLooping) {
+    synchronized (mLock) {
+      final Voice voice = findVoice(voiceId);
+      if (voice != null) {
+        voice.isLooping = isLooping;
+      }
+    }
+  }
+
+  int getAudioSessionId() {
+    synchronized (mLock) {
+      return mAudioTrack != null ? mAudioTrack.getAudioSessionId() : 0;
+    }
+  }
+
+  private Voice findVoice(final int voiceId) {
+    for (final Voice voice : mVoices) {
+      if (voice.id == voiceId && voice.clip != null) {
+        return voice;
+      }
+    }
+    return null;
+  }
+
+  private void clearVoice(final Voice voice) {
+    voice.clip = null;
+    voice.listener = null;
+    mActiveVoiceCount--;
+  }
+
+  // Lifecycle
+
+  private void startIfNecessary() {
+    if (mIsRunning) {
+      return;
+    }
+    final int minBufferSize = AudioTrack.getMinBufferSize(mSampleRate,
+        AudioFormat.CHANNEL_OUT_STEREO, AudioFormat.ENCODING_PCM_16BIT);
+    final int burstBytes = mFramesPerBurst * DecodedClip.CHANNEL_COUNT * 2;
+    mAudioTrack = new AudioTrack.Builder()
+        .setAudioAttributes(new AudioAttributes.Builder()
+            .setUsage(AudioAttributes.USAGE_MEDIA)
+            .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+            .build())
+        .setAudioFormat(new AudioFormat.Builder()
+            .setSampleRate(mSampleRate)
+            .setChannelMask(AudioFormat.CHANNEL_OUT_STEREO)
+            .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+            .build())
+        .setBufferSizeInBytes(Math.max(minBufferSize, burstBytes * 2))
+        .setTransferMode(AudioTrack.MODE_STREAM)
+        .setPerformanceMode(AudioTrack.PERFORMANCE_MODE_LOW_LATENCY)
+        .build();
+
+    mIsRunning = true;
+    mMixerThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+        runMixer();
+      }
+    }, "SoundEffectMixer");
+    mMixerThread.start();
+  }
+
+  public void release() {
+    final Thread mixerThread;
+    synchronized (mLock) {
+      for (final Voice voice : mVoices) {
+        if (voice.clip != null) {
+          clearVoice(voice);
+        }
+      }
+      mIsRunning = false;
+      mLock.notifyAll();
+      mixerThread = mMixerThread;
+      mMixerThread = null;
+    }
+    if (mixerThread != null) {
+      try {
+        mixerThread.join();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    synchronized (mLock) {
+      if (mAudioTrack != null) {
+        mAudioTrack.release();
+        mAudioTrack = null;
+      }
+    }
+    mDecodeExecutor.shutdownNow();
+    synchronized (mClips) {
+      mClips.clear();
+    }
+  }
+
+  // Mixer thread
+
+  private void runMixer() {
+    final AudioTrack track;
+    synchronized (mLock) {
+      track = mAudioTrack;
+    }
+    boolean isPlaying = false;
+
+    while (true) {
+      int finishedCount = 0;
+      synchronized (mLock) {
+        while (mIsRunning && mActiveVoiceCount == 0) {
+          if (isPlaying) {
+            track.pause();
+            track.flush();
+            isPlaying = false;
+          }
+          try {
+            mLock.wait();
+          } catch (final InterruptedException e) {
+            return;
+          }
+        }
+        if (!mIsRunning) {
+          if (isPlaying) {
+            track.stop();
+          }
+          return;
+        }
+        if (!isPlaying) {
+          track.play();
+          isPlaying = true;
+        }
+
+        Arrays.fill(mMixBuffer, 0f);
+        for (final Voice voice : mVoices) {
+          if (voice.clip != null && !mixVoice(voice)) {
+            // The slot is freed right away, the listener is called outside of the lock.
+            mFinishedListeners[finishedCount] = voice.listener;
+            mFinishedVoiceIds[finishedCount] = voice.id;
+            finishedCount++;
+            clearVoice(voice);
+          }
+        }
+        for (int i = 0; i < mMixBuffer.length; i++) {
+          final float sample = mMixBuffer[i];
+          mOutputBuffer[i] = (short) (sample > Short.MAX_VALUE ? Short.MAX_VALUE
+              : sample < Short.MIN_VALUE ? Short.MIN_VALUE : sample);
+        }
+      }
+
+      for (int i = 0; i < finishedCount; i++) {
+        final VoiceListener listener = mFinishedListeners[i];
+        mFinishedListeners[i] = null;
+        if (listener != null) {
+          listener.onVoiceFinished(mFinishedVoiceIds[i]);
+        }
+      }
+
+      // Blocks until the track has room, which paces the mixer to the output.
+      track.write(mOutputBuffer, 0, mOutputBuffer.length, AudioTrack.WRITE_BLOCKING);
+    }
+  }
+
+  // Adds one burst of the voice to the mix buffer. Returns false once a non-looping voice ended.
+  private boolean mixVoice(final Voice voice) {
+    final DecodedClip clip = voice.clip;
+    final int frameCount = clip.frameCount;
+    final float volume = voice.volume;
+    final float rate = voice.rate;
+    double position = voice.positionFrames;
+    // Nothing to play, and looping would take the remainder by zero.
+    if (frameCount == 0) {
+      voice.positionFrames = 0;
+      return false;
+    }
+
+    for (int frame = 0; frame < mFramesPerBurst; frame++) {
+      if (position >= frameCount) {
+        if (!voice.isLooping) {
+          voice.positionFrames = frameCount;
+          return false;
+        }
+        // Rates of a whole clip or more skip past the end more than once per frame.
+        position %= frameCount;
+      }
+      final int index = (int) position;
+      final int nextIndex = index + 1 < frameCount ? index + 1 : (voice.isLooping ? 0 : index);
+      final float fraction = (float) (position - index);
+
+      final float left = clip.samples.get(index * 2);
+      final float right = clip.samples.get(index * 2 + 1);
+      final float nextLeft = clip.samples.get(nextIndex * 2);
+      final float nextRight = clip.samples.get(nextIndex * 2 + 1);
+      mMixBuffer[frame * 2] += (left + (nextLeft - left) * fraction) * volume;
+      mMixBuffer[frame * 2 + 1] += (right + (nextRight - right) * fraction) * volume;
+      position += rate;
+    }
+    voice.positionFrames = position;
+    return true;
+  }
+}
@@ -0,0 +1,294 @@
+package com.reactlibrary.player;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.reactlibrary.AVModule;
+
+// A short clip played from memory by the SoundEffectEngine instead of an ExoPlayer. Loading
+// decodes the whole clip, or reuses the clip decoded for another sound with the same uri, and
+// playing starts a voice of the engine right away. The rate changes the pitch, shouldCorrectPitch
+// is not supported.
+class SoundEffectPlayerData extends PlayerData
+    implements SoundEffectEngine.ClipCallback, SoundEffectEngine.VoiceListener {
+
+  static final String IMPLEMENTATION_NAME = "SoundEffect";
+
+  private final SoundEffectEngine mEngine;
+  private Handler mHandler = null;
+  private LoadCompletionListener mLoadCompletionListener = null;
+  private ReadableMap mInitialStatus = null;
+  private Object mClipToken = null;
+  private DecodedClip mClip = null;
+  private boolean mIsReleased = false;
+  private boolean mIsLooping = false;
+
+  // The engine voice while playing, 0 otherwise.
+  private int mVoiceId = 0;
+  // The position while no voice plays.
+  private double mPositionFrames = 0;
+
+  SoundEffectPlayerData(final AVModule avModule, final Uri uri) {
+    super(avModule, uri);
+    mEngine = avModule.getSoundEffectEngine();
+  }
+
+  @Override
+  String getImplementationName() {
+    return IMPLEMENTATION_NAME;
+  }
+
+  @Override
+  Looper getExoPlayerLooper() {
+    return mHandler.getLooper();
+  }
+
+  // Lifecycle
+
+  @Override
+  public void load(final ReadableMap status, final LoadCompletionListener loadCompletionListener) {
+    mLoadCompletionListener = loadCompletionListener;
+    mInitialStatus = status;
+    // Engine callbacks arrive on the decoding and mixer threads and are handed over to the
+    // looper that drives the status updates of all sounds.
+    mHandler = mAVModule.getProgressUpdateScheduler().getHandler();
+    mClipToken = mEngine.acquireClip(mUri, this);
+  }
+
+  @Override
+  public synchronized void release() {
+    mIsReleased = true;
+    stopVoice();
+    stopUpdatingProgressIfNecessary();
+    if (mClipToken != null) {
+      mEngine.releaseClip(mClipToken, this);
+      mClipToken = null;
+    }
+    mClip = null;
+    mLoadCompletionListener = null;
+    updateAudioFocusRequirement();
+  }
+
+  private void onClipLoadedOnHandler(final DecodedClip clip) {
+    if (mIsReleased) {
+      return;
+    }
+    mClip = clip;
+    setStatus(mInitialStatus, null);
+    mInitialStatus = null;
+    if (mLoadCompletionListener != null) {
+      final LoadCompletionListener listener = mLoadCompletionListener;
+      mLoadCompletionListener = null;
+      listener.onLoadSuccess(getStatus());
+    }
+  }
+
+  private void onClipErrorOnHandler(final String error) {
+    if (mIsReleased) {
+      return;
+    }
+    final LoadCompletionListener listener = mLoadCompletionListener;
+    mLoadCompletionListener = null;
+    release();
+    if (listener != null) {
+      listener.onLoadError(error);
+    }
+  }
+
+  @Override
+  boolean shouldContinueUpdatingProgress() {
+    return mVoiceId != 0;
+  }
+
+  // Set status
+
+  @Override
+  void playPlayerWithRateAndMuteIfNecessary() throws AVModule.AudioFocusNotAcquiredException {
+    if (mClip == null || !shouldPlayerPlay()) {
+      return;
+    }
+
+    if (!mIsMuted) {
+      mAVModule.acquireAudioFocus();
+    }
+
+    if (mVoiceId != 0) {
+      updateVolumeMuteAndDuck();
+      mEngine.setRate(mVoiceId, mRate);
+    } else if (mIsLooping || mPositionFrames < mClip.frameCount) {
+      // Like a finished ExoPlayer, a finished effect only plays again after seeking.
+      mVoiceId = mEngine.play(mClip, mPositionFrames, mRate,
+          mAVModule.getVolumeForDuckAndFocus(mIsMuted, mVolume), mIsLooping, this);
+    }
+
+    beginUpdatingProgressIfNecessary();
+  }
+
+  @Override
+  void applyNewStatus(final Integer newPositionMillis, final Boolean newIsLooping)
+      throws AVModule.AudioFocusNotAcquiredException, IllegalStateException {
+    if (mClip == null) {
+      throw new IllegalStateException("The sound effect is not loaded.");
+    }
+
+    if (newIsLooping != null) {
+      mIsLooping = newIsLooping;
+      if (mVoiceId != 0) {
+        mEngine.setLooping(mVoiceId, mIsLooping);
+      }
+    }
+
+    // Pause first if necessary.
+    if (!shouldPlayerPlay()) {
+      stopVoice();
+      stopUpdatingProgressIfNecessary();
+    }
+
+    // Mute / update volume if it doesn't require a request of the audio focus.
+    updateVolumeMuteAndDuck();
+
+    // Seeking restarts the voice at the new position, which is also how an effect is retriggered.
+    if (newPositionMillis != null) {
+      stopVoice();
+      final double positionFrames = (double) newPositionMillis * mClip.sampleRate / 1000;
+      mPositionFrames = Math.max(0, Math.min(positionFrames, mClip.frameCount));
+    }
+
+    // Play / unmute
+    playPlayerWithRateAndMuteIfNecessary();
+  }
+
+  private void stopVoice() {
+    if (mVoiceId != 0) {
+      final double positionFrames = mEngine.stop(mVoiceId);
+      if (positionFrames >= 0) {
+        mPositionFrames = positionFrames;
+      }
+      mVoiceId = 0;
+    }
+  }
+
+  // Get status
+
+  @Override
+  boolean isLoaded() {
+    return mClip != null;
+  }
+
+  @Override
+  void getExtraStatusFields(final PlaybackStatus status) {
+    final int durationMillis = (int) mClip.getDurationMillis();
+    status.durationMillis = durationMillis;
+    status.positionMillis = getClippedIntegerForValue(getCurrentPositionMillis(), 0, durationMillis);
+    status.playableDurationMillis = durationMillis;
+    status.isPlaying = mVoiceId != 0;
+    status.isBuffering = false;
+    status.isLooping = mIsLooping;
+  }
+
+  @Override
+  int getAudioSessionId() {
+    return mEngine.getAudioSessionId();
+  }
+
+  @Override
+  int getCurrentPositionMillis() {
+    if (mClip == null) {
+      return 0;
+    }
+    double positionFrames = mPositionFrames;
+    if (mVoiceId != 0) {
+      final double voicePositionFrames = mEngine.getPositionFrames(mVoiceId);
+      if (voicePositionFrames >= 0) {
+        positionFrames = voicePositionFrames;
+      }
+    }
+    return (int) (positionFrames * 1000 / mClip.sampleRate);
+  }
+
+  // --------- Interface implementation ---------
+
+  // SoundEffectEngine.ClipCallback
+
+  @Override
+  public void onClipLoaded(final DecodedClip clip) {
+    mHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        onClipLoadedOnHandler(clip);
+      }
+    });
+  }
+
+  @Override
+  public void onClipError(final String error) {
+    mHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        onClipErrorOnHandler(error);
+      }
+    });
+  }
+
+  // SoundEffectEngine.VoiceListener
+
+  @Override
+  public void onVoiceFinished(final int voiceId) {
+    mHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        if (voiceId != mVoiceId || mClip == null) {
+          return;
+        }
+        mVoiceId = 0;
+        mPositionFrames = mClip.frameCount;
+        stopUpdatingProgressIfNecessary();
+        updateAudioFocusRequirement();
+        callStatusUpdateListenerWithDidJustFinish();
+      }
+    });
+  }
+
+  @Override
+  public void onVoiceStolen(final int voiceId, final double positionFrames) {
+    mHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        if (voiceId != mVoiceId) {
+          return;
+        }
+        // A newer effect took the voice, this one stays paused where it was cut off.
+        mVoiceId = 0;
+        mPositionFrames = positionFrames;
+        mShouldPlay = false;
+        stopUpdatingProgressIfNecessary();
+        updateAudioFocusRequirement();
+        mAVModule.abandonAudioFocusIfUnused();
+        callStatusUpdateListener();
+      }
+    });
+  }
+
+  // AudioEventHandler
+
+  @Override
+  public void pauseImmediately() {
+    stopVoice();
+    stopUpdatingProgressIfNecessary();
+    updateAudioFocusRequirement();
+  }
+
+  @Override
+  public boolean requiresAudioFocus() {
+    return mClip != null && (mVoiceId != 0 || shouldPlayerPlay()) && !mIsMuted;
+  }
+
+  @Override
+  public void updateVolumeMuteAndDuck() {
+    if (mVoiceId != 0) {
+      mEngine.setVolume(mVoiceId, mAVModule.getVolumeForDuckAndFocus(mIsMuted, mVolume));
+    }
+  }
+}
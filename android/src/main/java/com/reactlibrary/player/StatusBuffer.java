@@ -0,0 +1,193 @@
+package com.reactlibrary.player;
+
+import android.os.SystemClock;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Shared region holding the hot numeric status fields of every loaded sound, so that they can be
+// read from any thread without touching the players, taking their locks or building a status map.
+// Every status built by a PlayerData is also written to its slot in a direct ByteBuffer, in native
+// byte order with the layout below, so that a JSI binding can map the same memory.
+//
+// Slot layout, SLOT_SIZE_BYTES per slot:
+//   0  int    sequence, odd while the slot is being written
+//   4  int    flags, see FLAG_*
+//   8  long   timestampMillis, SystemClock.elapsedRealtime() of the snapshot
+//   16 double positionMillis
+//   24 double durationMillis
+//   32 double playableDurationMillis
+//   40 float  rate
+//   44 float  volume
+//   48 float  effectiveRate, the rate at which the position advances from the snapshot
+//   52 int    key of the sound owning the slot
+//
+// Writers and readers both hold the monitor of the buffer, which is held only for the few field
+// accesses of one slot, so readers never wait for a player. The sequence in the region only tells
+// a binding mapping it that a slot changed: plain ByteBuffer stores are not ordered, so it cannot
+// be used as a seqlock, and the fields are only consistent when read under the monitor.
+public class StatusBuffer {
+
+  public static final int SLOT_SIZE_BYTES = 64;
+  public static final int FLAG_IS_LOADED = 1;
+  public static final int FLAG_IS_PLAYING = 1 << 1;
+  public static final int FLAG_IS_BUFFERING = 1 << 2;
+  public static final int FLAG_IS_LOOPING = 1 << 3;
+  public static final int FLAG_HAS_DURATION = 1 << 4;
+
+  // The fields returned per sound by read(), in order.
+  public static final int FIELD_COUNT = 8;
+
+  private static final int SEQUENCE_OFFSET = 0;
+  private static final int FLAGS_OFFSET = 4;
+  private static final int TIMESTAMP_OFFSET = 8;
+  private static final int POSITION_OFFSET = 16;
+  private static final int DURATION_OFFSET = 24;
+  private static final int PLAYABLE_DURATION_OFFSET = 32;
+  private static final int RATE_OFFSET = 40;
+  private static final int VOLUME_OFFSET = 44;
+  private static final int EFFECTIVE_RATE_OFFSET = 48;
+  private static final int KEY_OFFSET = 52;
+  private static final int DEFAULT_CAPACITY = 64;
+
+  private ByteBuffer mBuffer = allocateBuffer(DEFAULT_CAPACITY);
+  private final Map<Integer, Integer> mSlotsByKey = new HashMap<>();
+  private final ArrayDeque<Integer> mFreeSlots = new ArrayDeque<>();
+  private int mSlotCount = 0;
+
+  private static ByteBuffer allocateBuffer(final int capacity) {
+    return ByteBuffer.allocateDirect(capacity * SLOT_SIZE_BYTES).order(ByteOrder.nativeOrder());
+  }
+
+  // The current region, for a binding that maps it. It is replaced when it grows.
+  public synchronized ByteBuffer getByteBuffer() {
+    return mBuffer;
+  }
+
+  private int getCapacity() {
+    return mBuffer.capacity() / SLOT_SIZE_BYTES;
+  }
+
+  public synchronized int getAllocatedSlotCount() {
+    return mSlotsByKey.size();
+  }
+
+  // Writers
+
+  public synchronized int allocate(final int key) {
+    final int slot;
+    if (!mFreeSlots.isEmpty()) {
+      slot = mFreeSlots.removeFirst();
+    } else {
+      if (mSlotCount == getCapacity()) {
+        grow();
+      }
+      slot = mSlotCount++;
+    }
+    beginWrite(slot);
+    mBuffer.putInt(slot * SLOT_SIZE_BYTES + FLAGS_OFFSET, 0);
+    mBuffer.putInt(slot * SLOT_SIZE_BYTES + KEY_OFFSET, key);
+    endWrite(slot);
+    mSlotsByKey.put(key, slot);
+    return slot;
+  }
+
+  public synchronized void free(final int key) {
+    final Integer slot = mSlotsByKey.remove(key);
+    if (slot == null) {
+      return;
+    }
+    beginWrite(slot);
+    mBuffer.putInt(slot * SLOT_SIZE_BYTES + FLAGS_OFFSET, 0);
+    mBuffer.putInt(slot * SLOT_SIZE_BYTES + KEY_OFFSET, -1);
+    endWrite(slot);
+    mFreeSlots.addLast(slot);
+  }
+
+  // Ignored if the slot was freed and possibly handed to another key in the meantime.
+  synchronized void write(final int key, final int slot, final PlaybackStatus status) {
+    if (slot < 0 || slot >= getCapacity()) {
+      return;
+    }
+    final ByteBuffer buffer = mBuffer;
+    final int offset = slot * SLOT_SIZE_BYTES;
+    if (buffer.getInt(offset + KEY_OFFSET) != key) {
+      return;
+    }
+    int flags = FLAG_IS_LOADED;
+    flags |= status.isPlaying ? FLAG_IS_PLAYING : 0;
+    flags |= status.isBuffering ? FLAG_IS_BUFFERING : 0;
+    flags |= status.isLooping ? FLAG_IS_LOOPING : 0;
+    flags |= status.hasDuration ? FLAG_HAS_DURATION : 0;
+
+    beginWrite(slot);
+    buffer.putInt(offset + FLAGS_OFFSET, flags);
+    buffer.putLong(offset + TIMESTAMP_OFFSET, status.timestampMillis);
+    buffer.putDouble(offset + POSITION_OFFSET, status.positionMillis);
+    buffer.putDouble(offset + DURATION_OFFSET, status.durationMillis);
+    buffer.putDouble(offset + PLAYABLE_DURATION_OFFSET, status.playableDurationMillis);
+    buffer.putFloat(offset + RATE_OFFSET, status.rate);
+    buffer.putFloat(offset + VOLUME_OFFSET, status.volume);
+    buffer.putFloat(offset + EFFECTIVE_RATE_OFFSET, status.effectiveRate);
+    endWrite(slot);
+  }
+
+  private void beginWrite(final int slot) {
+    incrementSequence(slot);
+  }
+
+  private void endWrite(final int slot) {
+    incrementSequence(slot);
+  }
+
+  private void incrementSequence(final int slot) {
+    final int offset = slot * SLOT_SIZE_BYTES + SEQUENCE_OFFSET;
+    mBuffer.putInt(offset, mBuffer.getInt(offset) + 1);
+  }
+
+  private void grow() {
+    final ByteBuffer newBuffer = allocateBuffer(getCapacity() * 2);
+    final ByteBuffer source = mBuffer.duplicate();
+    source.clear();
+    newBuffer.put(source);
+    mBuffer = newBuffer;
+  }
+
+  // Readers
+
+  // Writes FIELD_COUNT values for the key into out at outOffset: isLoaded, positionMillis,
+  // durationMillis, playableDurationMillis, isPlaying, isBuffering, rate and volume, with
+  // booleans as 0 or 1. The position is extrapolated to now from the last snapshot.
+  public synchronized void read(final int key, final double[] out, final int outOffset) {
+    final Integer slot = mSlotsByKey.get(key);
+    final int offset = slot != null ? slot * SLOT_SIZE_BYTES : 0;
+    final ByteBuffer buffer = mBuffer;
+    final int flags = slot != null && buffer.getInt(offset + KEY_OFFSET) == key
+        ? buffer.getInt(offset + FLAGS_OFFSET) : 0;
+    if ((flags & FLAG_IS_LOADED) != 0) {
+      final long timestampMillis = buffer.getLong(offset + TIMESTAMP_OFFSET);
+      final double positionMillis = buffer.getDouble(offset + POSITION_OFFSET);
+      final double durationMillis = buffer.getDouble(offset + DURATION_OFFSET);
+      double extrapolatedPositionMillis = positionMillis
+          + (SystemClock.elapsedRealtime() - timestampMillis) * buffer.getFloat(offset + EFFECTIVE_RATE_OFFSET);
+      if ((flags & FLAG_HAS_DURATION) != 0 && durationMillis > 0) {
+        extrapolatedPositionMillis = Math.min(extrapolatedPositionMillis, durationMillis);
+      }
+      out[outOffset] = 1;
+      out[outOffset + 1] = Math.max(0, extrapolatedPositionMillis);
+      out[outOffset + 2] = durationMillis;
+      out[outOffset + 3] = buffer.getDouble(offset + PLAYABLE_DURATION_OFFSET);
+      out[outOffset + 4] = (flags & FLAG_IS_PLAYING) != 0 ? 1 : 0;
+      out[outOffset + 5] = (flags & FLAG_IS_BUFFERING) != 0 ? 1 : 0;
+      out[outOffset + 6] = buffer.getFloat(offset + RATE_OFFSET);
+      out[outOffset + 7] = buffer.getFloat(offset + VOLUME_OFFSET);
+      return;
+    }
+    for (int i = 0; i < FIELD_COUNT; i++) {
+      out[outOffset + i] = 0;
+    }
+  }
+}
@@ -0,0 +1,256 @@
+package com.reactlibrary.player;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableMap;
+import com.reactlibrary.AVModule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.reactlibrary.player.PlayerData.STATUS_POSITION_MILLIS_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_RATE_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_SHOULD_CORRECT_PITCH_KEY_PATH;
+import static com.reactlibrary.player.PlayerData.STATUS_SHOULD_PLAY_KEY_PATH;
+
+// Plays several loaded sounds in lockstep. Starting the group holds every sound at the same
+// position until all of them are ready with enough data buffered, and then starts all players
+// within a single message of the playback looper. While playing, a drift monitor compares each
+// sound with the first one and pulls sounds that slipped back in sync, by slightly adjusting
+// their speed or, for large drifts, by seeking.
+//
+// Must only be used from the thread of the playback looper.
+public class SyncGroup {
+
+  public static final int DEFAULT_MIN_BUFFERED_MILLIS = 500;
+  public static final int DEFAULT_DRIFT_THRESHOLD_MILLIS = 20;
+  public static final int DEFAULT_DRIFT_CHECK_INTERVAL_MILLIS = 500;
+  public static final int DEFAULT_START_TIMEOUT_MILLIS = 10000;
+
+  private static final long READY_POLL_INTERVAL_MILLIS = 10;
+  // Drifts beyond this are corrected by seeking instead of adjusting the speed.
+  private static final int SEEK_DRIFT_THRESHOLD_MILLIS = 250;
+  // Corrects 20 ms of drift per second of playback.
+  private static final float SPEED_ADJUSTMENT = 0.02f;
+
+  private final Handler mHandler;
+  private final List<Integer> mKeys;
+  private final List<PlayerData> mMembers;
+  private final int mMinBufferedMillis;
+  private final int mDriftThresholdMillis;
+  private final int mDriftCheckIntervalMillis;
+  private final int mStartTimeoutMillis;
+
+  private Promise mPendingStartPromise = null;
+  private long mStartDeadlineUptimeMillis = 0;
+  private boolean mIsPlaying = false;
+  private int mSpeedCorrectionCount = 0;
+  private int mSeekCorrectionCount = 0;
+
+  private final Runnable mStartRunnable = new Runnable() {
+    @Override
+    public void run() {
+      tryStart();
+    }
+  };
+
+  private final Runnable mDriftCheckRunnable = new Runnable() {
+    @Override
+    public void run() {
+      checkDrift();
+      if (mIsPlaying) {
+        mHandler.postDelayed(this, mDriftCheckIntervalMillis);
+      }
+    }
+  };
+
+  public SyncGroup(final AVModule avModule, final List<Integer> keys, final List<PlayerData> members,
+                   final int minBufferedMillis, final int driftThresholdMillis,
+                   final int driftCheckIntervalMillis, final int startTimeoutMillis) {
+    mHandler = avModule.getProgressUpdateScheduler().getHandler();
+    mKeys = new ArrayList<>(keys);
+    mMembers = new ArrayList<>(members);
+    mMinBufferedMillis = minBufferedMillis;
+    mDriftThresholdMillis = Math.max(1, driftThresholdMillis);
+    mDriftCheckIntervalMillis = Math.max(1, driftCheckIntervalMillis);
+    mStartTimeoutMillis = startTimeoutMillis;
+  }
+
+  // Starts all sounds together from positionMillis, or from the current position of the first.
+  public void play(final Integer positionMillis, final Promise promise) {
+    stop("Interrupted by another play of the sync group.");
+    removeUnloadedMembers();
+    if (mMembers.isEmpty()) {
+      promise.reject("E_AV_SYNC_GROUP", "The sync group has no loaded sounds.");
+      return;
+    }
+
+    // Hold every sound at the start position while they buffer.
+    final WritableMap status = Arguments.createMap();
+    status.putBoolean(STATUS_SHOULD_PLAY_KEY_PATH, false);
+    status.putDouble(STATUS_POSITION_MILLIS_KEY_PATH,
+        positionMillis != null ? positionMillis : mMembers.get(0).getCurrentPositionMillis());
+    final String error = applyStatusToAll(status);
+    if (error != null) {
+      promise.reject("E_AV_SYNC_GROUP", error);
+      return;
+    }
+
+    mPendingStartPromise = promise;
+    mStartDeadlineUptimeMillis = SystemClock.uptimeMillis() + mStartTimeoutMillis;
+    mHandler.post(mStartRunnable);
+  }
+
+  public void pause(final Promise promise) {
+    stop("Interrupted by a pause of the sync group.");
+    final WritableMap status = Arguments.createMap();
+    status.putBoolean(STATUS_SHOULD_PLAY_KEY_PATH, false);
+    resolveOrReject(promise, applyStatusToAll(status));
+  }
+
+  public void setPosition(final int positionMillis, final Promise promise) {
+    if (mIsPlaying || mPendingStartPromise != null) {
+      // Seeking separately would undo the synchronized start.
+      play(positionMillis, promise);
+      return;
+    }
+    final WritableMap status = Arguments.createMap();
+    status.putDouble(STATUS_POSITION_MILLIS_KEY_PATH, positionMillis);
+    resolveOrReject(promise, applyStatusToAll(status));
+  }
+
+  public void setRate(final float rate, final boolean shouldCorrectPitch, final Promise promise) {
+    final WritableMap status = Arguments.createMap();
+    status.putDouble(STATUS_RATE_KEY_PATH, rate);
+    status.putBoolean(STATUS_SHOULD_CORRECT_PITCH_KEY_PATH, shouldCorrectPitch);
+    resolveOrReject(promise, applyStatusToAll(status));
+  }
+
+  public void release() {
+    stop("The sync group was released.");
+  }
+
+  private void stop(final String reason) {
+    mHandler.removeCallbacks(mStartRunnable);
+    if (mPendingStartPromise != null) {
+      final Promise promise = mPendingStartPromise;
+      mPendingStartPromise = null;
+      promise.reject("E_AV_SYNC_GROUP", reason);
+    }
+    mIsPlaying = false;
+    mHandler.removeCallbacks(mDriftCheckRunnable);
+    for (final PlayerData member : mMembers) {
+      member.setSyncSpeedFactor(1.0f);
+    }
+  }
+
+  private void tryStart() {
+    removeUnloadedMembers();
+    for (final PlayerData member : mMembers) {
+      if (!member.isReadyForSyncedStart(mMinBufferedMillis)) {
+        if (SystemClock.uptimeMillis() >= mStartDeadlineUptimeMillis) {
+          final Promise promise = mPendingStartPromise;
+          mPendingStartPromise = null;
+          promise.reject("E_AV_SYNC_GROUP", "Timed out while waiting for the sounds to buffer.");
+        } else {
+          mHandler.postDelayed(mStartRunnable, READY_POLL_INTERVAL_MILLIS);
+        }
+        return;
+      }
+    }
+
+    // All players are started within this one message.
+    final WritableMap status = Arguments.createMap();
+    status.putBoolean(STATUS_SHOULD_PLAY_KEY_PATH, true);
+    final String error = applyStatusToAll(status);
+
+    final Promise promise = mPendingStartPromise;
+    mPendingStartPromise = null;
+    if (error != null) {
+      promise.reject("E_AV_SYNC_GROUP", error);
+      return;
+    }
+    mIsPlaying = true;
+    mHandler.postDelayed(mDriftCheckRunnable, mDriftCheckIntervalMillis);
+    promise.resolve(getResult());
+  }
+
+  private void checkDrift() {
+    removeUnloadedMembers();
+    if (mMembers.size() < 2 || !mMembers.get(0).isReadyForSyncedStart(0)) {
+      return;
+    }
+    final PlayerData leader = mMembers.get(0);
+    for (int i = 1; i < mMembers.size(); i++) {
+      final PlayerData member = mMembers.get(i);
+      // Buffering and finished sounds are left alone.
+      if (!member.isReadyForSyncedStart(0)) {
+        continue;
+      }
+      final int leaderPositionMillis = leader.getCurrentPositionMillis();
+      final int driftMillis = member.getCurrentPositionMillis() - leaderPositionMillis;
+      final int absoluteDriftMillis = Math.abs(driftMillis);
+
+      if (absoluteDriftMillis < mDriftThresholdMillis / 2) {
+        member.setSyncSpeedFactor(1.0f);
+      } else if (absoluteDriftMillis >= mDriftThresholdMillis) {
+        final boolean canAdjustSpeed = absoluteDriftMillis < SEEK_DRIFT_THRESHOLD_MILLIS
+            && member.setSyncSpeedFactor(driftMillis > 0 ? 1.0f - SPEED_ADJUSTMENT : 1.0f + SPEED_ADJUSTMENT);
+        if (canAdjustSpeed) {
+          mSpeedCorrectionCount++;
+        } else {
+          member.setSyncSpeedFactor(1.0f);
+          final WritableMap status = Arguments.createMap();
+          status.putDouble(STATUS_POSITION_MILLIS_KEY_PATH, leaderPositionMillis);
+          member.applyStatus(status);
+          mSeekCorrectionCount++;
+        }
+      }
+    }
+  }
+
+  private void removeUnloadedMembers() {
+    for (int i = mMembers.size() - 1; i >= 0; i--) {
+      if (!mMembers.get(i).isLoaded()) {
+        mMembers.remove(i);
+        mKeys.remove(i);
+      }
+    }
+  }
+
+  // Returns the first error, after applying the status to all sounds anyway.
+  private String applyStatusToAll(final WritableMap status) {
+    String firstError = null;
+    for (final PlayerData member : mMembers) {
+      final String error = member.applyStatus(status);
+      if (error != null && firstError == null) {
+        firstError = error;
+      }
+    }
+    return firstError;
+  }
+
+  private void resolveOrReject(final Promise promise, final String error) {
+    if (error != null) {
+      promise.reject("E_AV_SYNC_GROUP", error);
+    } else {
+      promise.resolve(getResult());
+    }
+  }
+
+  // { statuses: { [key]: status }, speedCorrectionCount, seekCorrectionCount }
+  private WritableMap getResult() {
+    final WritableMap statuses = Arguments.createMap();
+    for (int i = 0; i < mMembers.size(); i++) {
+      statuses.putMap(String.valueOf(mKeys.get(i)), mMembers.get(i).getStatus());
+    }
+    final WritableMap result = Arguments.createMap();
+    result.putMap("statuses", statuses);
+    result.putInt("speedCorrectionCount", mSpeedCorrectionCount);
+    result.putInt("seekCorrectionCount", mSeekCorrectionCount);
+    return result;
+  }
+}
@@ -0,0 +1,36 @@
+package com.reactlibrary;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collection;
+
+import static org.junit.Assert.assertFalse;
+
+// Runs the JMH benchmarks of the module with ./gradlew testDebugUnitTest -Pbenchmarks. They run
+// in this test's process, where the Android classes are available, and write their results to
+// build/reports/benchmarks.json so that runs can be compared with each other.
+@RunWith(RobolectricTestRunner.class)
+public class BenchmarkTest {
+
+  @Test
+  public void runBenchmarks() throws RunnerException {
+    Assume.assumeTrue("Benchmarks only run with -Pbenchmarks.", Boolean.getBoolean("benchmarks"));
+    final Options options = new OptionsBuilder()
+        .include("com\\.reactlibrary\\..*Benchmarks")
+        .forks(0)
+        .resultFormat(ResultFormatType.JSON)
+        .result("build/reports/benchmarks.json")
+        .build();
+    final Collection<RunResult> results = new Runner(options).run();
+    assertFalse(results.isEmpty());
+  }
+}
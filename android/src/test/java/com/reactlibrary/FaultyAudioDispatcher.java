@@ -0,0 +1,101 @@
+package com.reactlibrary;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+// Serves the same audio file under every path, like a slow, throttled, failing or
+// range-ignoring server would.
+final class FaultyAudioDispatcher extends Dispatcher {
+
+  private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d+)-(\\d*)");
+  private static final long THROTTLE_PERIOD_MILLIS = 100;
+
+  private final byte[] mBody;
+  private long mLatencyMillis = 0;
+  private long mBytesPerSecond = 0;
+  private double mFailureRate = 0;
+  private boolean mShouldIgnoreRanges = false;
+  private final Random mRandom;
+  private final AtomicInteger mRequestCount = new AtomicInteger();
+  private final AtomicInteger mFailedRequestCount = new AtomicInteger();
+
+  FaultyAudioDispatcher(final byte[] body, final long seed) {
+    mBody = body;
+    mRandom = new Random(seed);
+  }
+
+  // Delays the headers of every response.
+  FaultyAudioDispatcher setLatencyMillis(final long latencyMillis) {
+    mLatencyMillis = latencyMillis;
+    return this;
+  }
+
+  FaultyAudioDispatcher setBytesPerSecond(final long bytesPerSecond) {
+    mBytesPerSecond = bytesPerSecond;
+    return this;
+  }
+
+  // The share of requests answered with a server error, between 0 and 1.
+  FaultyAudioDispatcher setFailureRate(final double failureRate) {
+    mFailureRate = failureRate;
+    return this;
+  }
+
+  // Answers requests for a part of the file with all of it.
+  FaultyAudioDispatcher setShouldIgnoreRanges(final boolean shouldIgnoreRanges) {
+    mShouldIgnoreRanges = shouldIgnoreRanges;
+    return this;
+  }
+
+  int getRequestCount() {
+    return mRequestCount.get();
+  }
+
+  int getFailedRequestCount() {
+    return mFailedRequestCount.get();
+  }
+
+  @Override
+  public MockResponse dispatch(final RecordedRequest request) {
+    mRequestCount.incrementAndGet();
+    final MockResponse response = new MockResponse().setHeadersDelay(mLatencyMillis, TimeUnit.MILLISECONDS);
+    final boolean shouldFail;
+    synchronized (mRandom) {
+      shouldFail = mRandom.nextDouble() < mFailureRate;
+    }
+    if (shouldFail) {
+      mFailedRequestCount.incrementAndGet();
+      return response.setResponseCode(500);
+    }
+
+    int start = 0;
+    int end = mBody.length - 1;
+    final String range = request.getHeader("Range");
+    final Matcher matcher = range != null && !mShouldIgnoreRanges ? RANGE_PATTERN.matcher(range) : null;
+    if (matcher != null && matcher.matches()) {
+      start = Integer.parseInt(matcher.group(1));
+      if (!matcher.group(2).isEmpty()) {
+        end = Math.min(end, Integer.parseInt(matcher.group(2)));
+      }
+      if (start > end) {
+        return response.setResponseCode(416).setHeader("Content-Range", "bytes */" + mBody.length);
+      }
+      response.setResponseCode(206).setHeader("Content-Range", "bytes " + start + "-" + end + "/" + mBody.length);
+    }
+    response.setHeader("Content-Type", "audio/wav")
+        .setHeader("Accept-Ranges", mShouldIgnoreRanges ? "none" : "bytes")
+        .setBody(new Buffer().write(mBody, start, end - start + 1));
+    if (mBytesPerSecond > 0) {
+      response.throttleBody(mBytesPerSecond * THROTTLE_PERIOD_MILLIS / 1000, THROTTLE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    return response;
+  }
+}
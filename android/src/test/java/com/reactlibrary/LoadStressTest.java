@@ -0,0 +1,221 @@
+package com.reactlibrary;
+
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Loads many muted sounds at once from a local server, waits until every one is ready or has
+// failed, and unloads them again. Each case degrades the server in another way, and reports the
+// time to ready, the error rate and the thread and heap growth as a baseline for changes to
+// loading and networking. Runs with ./gradlew testDebugUnitTest -PloadStress.
+@RunWith(RobolectricTestRunner.class)
+public class LoadStressTest {
+
+  private static final int SOUND_COUNT = 200;
+  private static final int SOUND_DURATION_MILLIS = 5000;
+  private static final long SEED = 0;
+  private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  private static final long SETTLE_MILLIS = 2000;
+  private static final int MAX_THREAD_GROWTH = 8;
+  private static final double FAILURE_RATE = 0.2;
+
+  private byte[] mWav;
+  private MockWebServer mServer;
+  private AVModule mAVModule;
+
+  private final LatencyHistogram mTimeToReadyMillis = new LatencyHistogram();
+  private final Queue<Integer> mLoadedKeys = new ConcurrentLinkedQueue<>();
+  private final Queue<String> mErrors = new ConcurrentLinkedQueue<>();
+
+  @Before
+  public void setUp() {
+    Assume.assumeTrue("Load stress only runs with -PloadStress.", Boolean.getBoolean("loadStress"));
+    TestMedia.registerRawAudioDecoder();
+    mWav = TestMedia.createWav(SOUND_DURATION_MILLIS);
+    mServer = new MockWebServer();
+    mAVModule = ModuleFixture.createModule();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (mAVModule != null) {
+      mAVModule.onCatalystInstanceDestroy();
+    }
+    if (mServer != null) {
+      mServer.shutdown();
+    }
+  }
+
+  @Test
+  public void healthyServer() throws Exception {
+    run("healthyServer", new FaultyAudioDispatcher(mWav, SEED));
+    assertEquals(0, mErrors.size());
+  }
+
+  @Test
+  public void slowServer() throws Exception {
+    run("slowServer", new FaultyAudioDispatcher(mWav, SEED).setLatencyMillis(500));
+    assertEquals(0, mErrors.size());
+  }
+
+  @Test
+  public void throttledServer() throws Exception {
+    run("throttledServer", new FaultyAudioDispatcher(mWav, SEED).setBytesPerSecond(256 * 1024));
+    assertEquals(0, mErrors.size());
+  }
+
+  @Test
+  public void serverIgnoringRanges() throws Exception {
+    run("serverIgnoringRanges", new FaultyAudioDispatcher(mWav, SEED).setShouldIgnoreRanges(true));
+    assertEquals(0, mErrors.size());
+  }
+
+  // Failed requests are retried, so a sound only fails once all of its retries have failed.
+  @Test
+  public void failingServer() throws Exception {
+    final FaultyAudioDispatcher dispatcher = new FaultyAudioDispatcher(mWav, SEED).setFailureRate(FAILURE_RATE);
+    run("failingServer", dispatcher);
+    assertTrue("No request failed.", dispatcher.getFailedRequestCount() > 0);
+    assertFalse("No sound loaded.", mLoadedKeys.isEmpty());
+    // ExoPlayer retries failed requests, so far fewer loads than requests fail.
+    assertTrue(mErrors.size() + " of " + SOUND_COUNT + " loads failed.", mErrors.size() < SOUND_COUNT * FAILURE_RATE);
+  }
+
+  // Every sound has a path of its own, so that none is served from the media cache.
+  private void run(final String name, final FaultyAudioDispatcher dispatcher) throws Exception {
+    mServer.setDispatcher(dispatcher);
+    mServer.start();
+
+    System.gc();
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    final int threadCountBefore = threads.getThreadCount();
+    threads.resetPeakThreadCount();
+    final long heapBytesBefore = getUsedHeapBytes();
+    final List<MemoryPoolMXBean> heapPools = getHeapPools();
+    for (final MemoryPoolMXBean pool : heapPools) {
+      pool.resetPeakUsage();
+    }
+
+    final CountDownLatch completed = new CountDownLatch(SOUND_COUNT);
+    final long startNanos = System.nanoTime();
+    for (int i = 0; i < SOUND_COUNT; i++) {
+      load(mServer.url("/sounds/" + i + ".wav").toString(), completed);
+    }
+    final boolean hasTimedOut = !ModuleFixture.advanceClockUntilCountedDown(completed, TIMEOUT_MILLIS);
+    final long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    final int threadCountLoaded = threads.getThreadCount();
+    final int threadCountPeak = threads.getPeakThreadCount();
+    long heapBytesPeak = 0;
+    for (final MemoryPoolMXBean pool : heapPools) {
+      heapBytesPeak += pool.getPeakUsage().getUsed();
+    }
+
+    removeLoadedSounds();
+    ModuleFixture.settle(SETTLE_MILLIS);
+    final int threadCountAfter = threads.getThreadCount();
+    final long heapBytesAfter = getUsedHeapBytes();
+
+    System.out.println(name + ": " + SOUND_COUNT + " sounds, " + mLoadedKeys.size() + " loaded, "
+        + mErrors.size() + " failed, " + (SOUND_COUNT - completed.getCount()) + " completed in "
+        + durationMillis + " ms, " + dispatcher.getRequestCount() + " requests, "
+        + dispatcher.getFailedRequestCount() + " failed requests");
+    System.out.println(name + ": time to ready in ms " + mTimeToReadyMillis.toMap());
+    System.out.println(name + ": threads " + threadCountBefore + " before, " + threadCountPeak + " peak, "
+        + threadCountLoaded + " loaded, " + threadCountAfter + " after");
+    System.out.println(name + ": heap bytes " + heapBytesBefore + " before, " + heapBytesPeak + " peak, "
+        + heapBytesAfter + " after");
+    if (!mErrors.isEmpty()) {
+      System.out.println(name + ": first error " + mErrors.peek());
+    }
+
+    assertFalse("Some sounds were neither ready nor failed in time.", hasTimedOut);
+    assertEquals(0, getDiagnostics().getInt("soundCount"));
+    assertTrue("The thread count grew by " + (threadCountAfter - threadCountBefore) + ".",
+        threadCountAfter - threadCountBefore <= MAX_THREAD_GROWTH);
+  }
+
+  private void load(final String uri, final CountDownLatch completed) {
+    final WritableMap source = new JavaOnlyMap();
+    source.putString("uri", uri);
+    final WritableMap status = new JavaOnlyMap();
+    status.putBoolean("shouldPlay", false);
+    status.putBoolean("isMuted", true);
+    final long loadStartNanos = System.nanoTime();
+    mAVModule.loadForSound(source, status, new Callback() {
+      @Override
+      public void invoke(final Object... args) {
+        mTimeToReadyMillis.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStartNanos));
+        mLoadedKeys.add((Integer) args[0]);
+        completed.countDown();
+      }
+    }, new Callback() {
+      @Override
+      public void invoke(final Object... args) {
+        mErrors.add(String.valueOf(args[0]));
+        completed.countDown();
+      }
+    });
+  }
+
+  private void removeLoadedSounds() throws Exception {
+    ModuleFixture.callOnPlaybackThread(mAVModule, new Callable<Void>() {
+      @Override
+      public Void call() {
+        for (final Integer key : mLoadedKeys) {
+          mAVModule.removeSoundForKey(key);
+        }
+        return null;
+      }
+    });
+  }
+
+  private ReadableMap getDiagnostics() throws Exception {
+    return ModuleFixture.callOnPlaybackThread(mAVModule, new Callable<ReadableMap>() {
+      @Override
+      public ReadableMap call() {
+        return mAVModule.buildDiagnostics();
+      }
+    });
+  }
+
+  private static List<MemoryPoolMXBean> getHeapPools() {
+    final List<MemoryPoolMXBean> pools = new ArrayList<>();
+    for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pools.add(pool);
+      }
+    }
+    return pools;
+  }
+
+  private static long getUsedHeapBytes() {
+    final Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
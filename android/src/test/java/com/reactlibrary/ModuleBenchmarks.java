@@ -0,0 +1,138 @@
+package com.reactlibrary;
+
+import android.os.HandlerThread;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.reactlibrary.player.PlayerData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+// The audio focus bookkeeping and status event batching of the module, where an operation
+// handles every sound once.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 15, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+public class ModuleBenchmarks {
+
+  @Param({"1", "10", "100", "1000"})
+  public int soundCount;
+
+  private static final class StandInHandler implements AudioEventHandler {
+    boolean requiresAudioFocus = false;
+
+    @Override
+    public void pauseImmediately() {
+    }
+
+    @Override
+    public boolean requiresAudioFocus() {
+      return requiresAudioFocus;
+    }
+
+    @Override
+    public void updateVolumeMuteAndDuck() {
+    }
+
+    @Override
+    public void handleAudioFocusInterruptionBegan() {
+    }
+
+    @Override
+    public void handleAudioFocusGained() {
+    }
+
+    @Override
+    public void onPause() {
+    }
+
+    @Override
+    public void onResume() {
+    }
+  }
+
+  private static final AudioFocusRegistry.Visitor NO_OP_VISITOR = new AudioFocusRegistry.Visitor() {
+    @Override
+    public void visit(final AudioEventHandler handler) {
+    }
+  };
+
+  private AudioFocusRegistry mRegistry;
+  private StandInHandler[] mHandlers;
+  private AudioFocusRegistry.Node[] mNodes;
+  private HandlerThread mEmitterThread;
+  private StatusEventEmitter mEmitter;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    mRegistry = new AudioFocusRegistry();
+    mHandlers = new StandInHandler[soundCount];
+    mNodes = new AudioFocusRegistry.Node[soundCount];
+    for (int i = 0; i < soundCount; i++) {
+      mHandlers[i] = new StandInHandler();
+      mNodes[i] = new AudioFocusRegistry.Node(mHandlers[i]);
+    }
+
+    mEmitterThread = new HandlerThread("EmitterBenchmark");
+    mEmitterThread.start();
+    // Its batch window never closes, so statuses are only ever discarded and nothing is sent.
+    mEmitter = new StatusEventEmitter(new ReactApplicationContext(RuntimeEnvironment.getApplication()),
+        new Instrumentation(), mEmitterThread.getLooper());
+    mEmitter.setBatching(true, Integer.MAX_VALUE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    mEmitterThread.quitSafely();
+  }
+
+  // Registers the handlers, flips each one's audio focus requirement twice, checks and visits
+  // them, and unregisters them.
+  @Benchmark
+  public void audioFocusRegistry() {
+    for (int i = 0; i < soundCount; i++) {
+      mRegistry.register(mNodes[i]);
+    }
+    for (int i = 0; i < soundCount; i++) {
+      mHandlers[i].requiresAudioFocus = true;
+      mRegistry.update(mNodes[i]);
+      mRegistry.isAudioFocusRequired();
+    }
+    mRegistry.forEachRequiringAudioFocus(NO_OP_VISITOR);
+    for (int i = 0; i < soundCount; i++) {
+      mHandlers[i].requiresAudioFocus = false;
+      mRegistry.update(mNodes[i]);
+      mRegistry.isAudioFocusRequired();
+    }
+    mRegistry.forEach(NO_OP_VISITOR);
+    for (int i = 0; i < soundCount; i++) {
+      mRegistry.unregister(mNodes[i]);
+    }
+  }
+
+  // Queues one status per sound in a batch and drops them again.
+  @Benchmark
+  public void statusEventBatching() {
+    for (int i = 0; i < soundCount; i++) {
+      mEmitter.emit(-1 - i, PlayerData.getUnloadedStatus());
+    }
+    for (int i = 0; i < soundCount; i++) {
+      mEmitter.discard(-1 - i);
+    }
+  }
+}
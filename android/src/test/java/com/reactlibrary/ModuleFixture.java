@@ -0,0 +1,116 @@
+package com.reactlibrary;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+// Builds modules for Robolectric tests of real sounds, and drives the threads they play on.
+final class ModuleFixture {
+
+  private static final long CALL_TIMEOUT_MILLIS = 10000;
+  private static final long CLOCK_STEP_MILLIS = 10;
+  private static final int MAX_GC_COUNT = 20;
+  private static final long SETTLED_HEAP_DELTA_BYTES = 256 * 1024;
+
+  private ModuleFixture() {
+  }
+
+  // Events are sent to a mock instead of JS, as there is no React instance.
+  static AVModule createModule() {
+    final ReactApplicationContext context = spy(new ReactApplicationContext(RuntimeEnvironment.getApplication()));
+    doReturn(mock(DeviceEventManagerModule.RCTDeviceEventEmitter.class)).when(context).getJSModule(any());
+    return new AVModule(context);
+  }
+
+  // For state that is only touched on the playback thread.
+  static <T> T callOnPlaybackThread(final AVModule avModule, final Callable<T> callable) throws Exception {
+    final FutureTask<T> task = new FutureTask<>(callable);
+    new Handler(avModule.getPlaybackLooper()).post(task);
+    return task.get(CALL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  // The clock of Robolectric only moves when told to, and the delayed messages of the playback
+  // and ExoPlayer threads wait for it. Moves it on in small steps until the executor's work is
+  // done, and returns false if that took longer than the timeout.
+  static boolean advanceClockUntilTerminated(final ExecutorService executor, final long timeoutMillis)
+      throws InterruptedException {
+    executor.shutdown();
+    final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+      if (System.nanoTime() > deadlineNanos) {
+        executor.shutdownNow();
+        return false;
+      }
+      advanceClock(CLOCK_STEP_MILLIS);
+    }
+    return true;
+  }
+
+  static boolean advanceClockUntilCountedDown(final CountDownLatch latch, final long timeoutMillis)
+      throws InterruptedException {
+    final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    while (!latch.await(1, TimeUnit.MILLISECONDS)) {
+      if (System.nanoTime() > deadlineNanos) {
+        return false;
+      }
+      advanceClock(CLOCK_STEP_MILLIS);
+    }
+    return true;
+  }
+
+  // Lets released players and their threads wind down, e.g. before measuring what is left.
+  static void settle(final long millis) throws InterruptedException {
+    final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    while (System.nanoTime() < deadlineNanos) {
+      advanceClock(CLOCK_STEP_MILLIS);
+      Thread.sleep(1);
+    }
+  }
+
+  // A single System.gc() is only a hint, and finalizers and reference queues free more on the
+  // next one. Collects until the used heap stops shrinking, so that two measurements compare.
+  static long getSettledHeapBytes() throws InterruptedException {
+    long usedBytes = getUsedHeapBytes();
+    for (int i = 0; i < MAX_GC_COUNT; i++) {
+      System.gc();
+      System.runFinalization();
+      Thread.sleep(CLOCK_STEP_MILLIS);
+      final long previousBytes = usedBytes;
+      usedBytes = getUsedHeapBytes();
+      if (Math.abs(previousBytes - usedBytes) < SETTLED_HEAP_DELTA_BYTES) {
+        break;
+      }
+    }
+    return usedBytes;
+  }
+
+  private static long getUsedHeapBytes() {
+    final Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  static void advanceClock(final long millis) {
+    ShadowSystemClock.advanceBy(Duration.ofMillis(millis));
+    if (Looper.myLooper() == Looper.getMainLooper()) {
+      ShadowLooper.idleMainLooper();
+    }
+  }
+}
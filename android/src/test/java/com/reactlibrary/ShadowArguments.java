@@ -0,0 +1,25 @@
+package com.reactlibrary;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+
+// Arguments creates native maps and arrays, whose library is not loaded on the JVM.
+@Implements(Arguments.class)
+public class ShadowArguments {
+
+  @Implementation
+  protected static WritableMap createMap() {
+    return new JavaOnlyMap();
+  }
+
+  @Implementation
+  protected static WritableArray createArray() {
+    return new JavaOnlyArray();
+  }
+}
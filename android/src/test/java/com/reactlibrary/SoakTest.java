@@ -0,0 +1,260 @@
+package com.reactlibrary;
+
+import android.net.Uri;
+
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+// Repeats load, play, seek and unload cycles of real sounds through the bridge methods, a few at
+// a time, with every tenth cycle loading a missing file to cover the error paths. Afterwards
+// everything the module holds on to has to be back where it started, and the threads and heap
+// of the process may only have grown within their bounds. Only runs with -Psoak.
+@RunWith(RobolectricTestRunner.class)
+public class SoakTest {
+
+  // -PsoakCycles shortens the run, e.g. while working on the test.
+  private static final int CYCLE_COUNT = Integer.getInteger("soakCycles", 10000);
+  private static final int CONCURRENCY = 4;
+  private static final int FAILING_CYCLE_INTERVAL = 10;
+  // Lazily created players, pools and threads are in place before the baseline is taken.
+  private static final int WARM_UP_CYCLE_COUNT = CONCURRENCY * 2;
+  private static final int MAX_THREAD_GROWTH = 8;
+  private static final long MAX_HEAP_GROWTH_BYTES = 16 * 1024 * 1024;
+  private static final long STEP_TIMEOUT_MILLIS = 10000;
+  private static final long RUN_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+  // Lets released players and their threads wind down before the final measurement.
+  private static final long SETTLE_MILLIS = 2000;
+  private static final int SOUND_DURATION_MILLIS = 3000;
+  private static final String[] LEAK_COUNT_KEYS = {
+      "soundCount", "audioEventHandlerCount", "requiringAudioFocusCount", "syncGroupCount",
+      "scheduledProgressUpdateCount", "statusBufferSlotCount"};
+
+  @Rule
+  public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+  private AVModule mAVModule;
+  private String mSoundUri;
+  private String mMissingUri;
+
+  private final AtomicInteger mNextCycle = new AtomicInteger();
+  private final AtomicInteger mCompletedCycleCount = new AtomicInteger();
+  private final Queue<String> mUnexpectedErrors = new ConcurrentLinkedQueue<>();
+
+  @Before
+  public void setUp() throws Exception {
+    Assume.assumeTrue("The soak test only runs with -Psoak.", Boolean.getBoolean("soak"));
+    TestMedia.registerRawAudioDecoder();
+    mSoundUri = Uri.fromFile(TestMedia.writeWav(mTemporaryFolder.newFile("tone.wav"), SOUND_DURATION_MILLIS)).toString();
+    mMissingUri = Uri.fromFile(new File(mTemporaryFolder.getRoot(), "missing.wav")).toString();
+    mAVModule = ModuleFixture.createModule();
+  }
+
+  @After
+  public void tearDown() {
+    mAVModule.onCatalystInstanceDestroy();
+  }
+
+  @Test
+  public void cyclesLeaveNothingBehind() throws Exception {
+    runCycles(WARM_UP_CYCLE_COUNT);
+    ModuleFixture.settle(SETTLE_MILLIS);
+    final ReadableMap countsBefore = getDiagnostics();
+    final int threadCountBefore = getThreadCount();
+    final long heapBytesBefore = ModuleFixture.getSettledHeapBytes();
+
+    mNextCycle.set(0);
+    mCompletedCycleCount.set(0);
+    runCycles(CYCLE_COUNT);
+    ModuleFixture.settle(SETTLE_MILLIS);
+
+    assertEquals(CYCLE_COUNT, mCompletedCycleCount.get());
+    assertTrue("Unexpected errors: " + mUnexpectedErrors, mUnexpectedErrors.isEmpty());
+    final ReadableMap countsAfter = getDiagnostics();
+    for (final String key : LEAK_COUNT_KEYS) {
+      assertEquals(key, countsBefore.getInt(key), countsAfter.getInt(key));
+    }
+    final int threadGrowth = getThreadCount() - threadCountBefore;
+    assertTrue("The thread count grew by " + threadGrowth + ".", threadGrowth <= MAX_THREAD_GROWTH);
+    final long heapGrowthBytes = ModuleFixture.getSettledHeapBytes() - heapBytesBefore;
+    assertTrue("The heap grew by " + heapGrowthBytes + " bytes.", heapGrowthBytes <= MAX_HEAP_GROWTH_BYTES);
+  }
+
+  private void runCycles(final int cycleCount) throws InterruptedException {
+    final ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+    for (int i = 0; i < CONCURRENCY; i++) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          int cycle;
+          while ((cycle = mNextCycle.getAndIncrement()) < cycleCount) {
+            try {
+              runCycle(cycle);
+            } catch (final InterruptedException e) {
+              return;
+            }
+            mCompletedCycleCount.incrementAndGet();
+          }
+        }
+      });
+    }
+    assertTrue("The cycles timed out.", ModuleFixture.advanceClockUntilTerminated(executor, RUN_TIMEOUT_MILLIS));
+  }
+
+  private void runCycle(final int cycle) throws InterruptedException {
+    final boolean shouldFail = cycle % FAILING_CYCLE_INTERVAL == FAILING_CYCLE_INTERVAL - 1;
+    final WritableMap source = new JavaOnlyMap();
+    source.putString("uri", shouldFail ? mMissingUri : mSoundUri);
+    final WritableMap status = new JavaOnlyMap();
+    status.putBoolean("shouldPlay", false);
+    status.putBoolean("isMuted", true);
+    final LoadResult load = new LoadResult();
+    mAVModule.loadForSound(source, status, load.onSuccess, load.onError);
+    if (!load.latch.await(STEP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+      mUnexpectedErrors.add("Cycle " + cycle + ": the load timed out.");
+      return;
+    }
+    if (load.key == null) {
+      if (!shouldFail) {
+        mUnexpectedErrors.add("Cycle " + cycle + ": " + load.errorMessage);
+      }
+      return;
+    }
+    if (shouldFail) {
+      mUnexpectedErrors.add("Cycle " + cycle + ": a missing file was loaded.");
+    }
+
+    final int key = load.key;
+    final WritableMap playStatus = new JavaOnlyMap();
+    playStatus.putBoolean("shouldPlay", true);
+    final WritableMap seekStatus = new JavaOnlyMap();
+    seekStatus.putDouble("positionMillis", 1000);
+    final boolean isUnloaded = awaitStep(cycle, "play", setStatus(key, playStatus))
+        && awaitStep(cycle, "seek", setStatus(key, seekStatus))
+        && awaitStep(cycle, "unload", unload(key));
+    if (!isUnloaded) {
+      removeSound(key);
+    }
+  }
+
+  private StepResult setStatus(final int key, final ReadableMap status) {
+    final StepResult step = new StepResult();
+    mAVModule.setStatusForSound(key, status, step.promise);
+    return step;
+  }
+
+  private StepResult unload(final int key) {
+    final StepResult step = new StepResult();
+    mAVModule.unloadForSound(key, step.promise);
+    return step;
+  }
+
+  private boolean awaitStep(final int cycle, final String name, final StepResult step) throws InterruptedException {
+    if (!step.latch.await(STEP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+      mUnexpectedErrors.add("Cycle " + cycle + ": " + name + " timed out.");
+      return false;
+    }
+    if (step.errorMessage != null) {
+      mUnexpectedErrors.add("Cycle " + cycle + ": " + name + " failed with " + step.errorMessage);
+      return false;
+    }
+    return true;
+  }
+
+  private void removeSound(final int key) {
+    try {
+      ModuleFixture.callOnPlaybackThread(mAVModule, new Callable<Void>() {
+        @Override
+        public Void call() {
+          mAVModule.removeSoundForKey(key);
+          return null;
+        }
+      });
+    } catch (final Exception e) {
+      mUnexpectedErrors.add("Removing sound " + key + " failed with " + e);
+    }
+  }
+
+  private ReadableMap getDiagnostics() throws Exception {
+    return ModuleFixture.callOnPlaybackThread(mAVModule, new Callable<ReadableMap>() {
+      @Override
+      public ReadableMap call() {
+        return mAVModule.buildDiagnostics();
+      }
+    });
+  }
+
+  private static int getThreadCount() {
+    return ManagementFactory.getThreadMXBean().getThreadCount();
+  }
+
+  private static final class LoadResult {
+    final CountDownLatch latch = new CountDownLatch(1);
+    volatile Integer key = null;
+    volatile String errorMessage = null;
+
+    final Callback onSuccess = new Callback() {
+      @Override
+      public void invoke(final Object... args) {
+        key = (Integer) args[0];
+        latch.countDown();
+      }
+    };
+
+    final Callback onError = new Callback() {
+      @Override
+      public void invoke(final Object... args) {
+        errorMessage = String.valueOf(args[0]);
+        latch.countDown();
+      }
+    };
+  }
+
+  // A mock, so that it implements every reject overload of the React Native version in use.
+  private static final class StepResult {
+    final CountDownLatch latch = new CountDownLatch(1);
+    volatile String errorMessage = null;
+
+    final Promise promise = mock(Promise.class, new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) {
+        final String name = invocation.getMethod().getName();
+        if ("reject".equals(name)) {
+          errorMessage = String.valueOf(invocation.getArguments()[0]);
+          latch.countDown();
+        } else if ("resolve".equals(name)) {
+          latch.countDown();
+        }
+        return null;
+      }
+    });
+  }
+}
@@ -0,0 +1,78 @@
+package com.reactlibrary;
+
+import android.media.MediaFormat;
+
+import com.google.android.exoplayer2.util.MimeTypes;
+
+import org.robolectric.shadows.MediaCodecInfoBuilder;
+import org.robolectric.shadows.ShadowMediaCodec;
+import org.robolectric.shadows.ShadowMediaCodecList;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Media that real sounds can play in Robolectric tests.
+final class TestMedia {
+
+  static final int SAMPLE_RATE = 44100;
+
+  private static final String RAW_DECODER_NAME = "test.audio.raw";
+  private static final int CODEC_BUFFER_SIZE = 64 * 1024;
+  private static final int WAV_HEADER_SIZE = 44;
+  private static final double TONE_HZ = 440;
+
+  private TestMedia() {
+  }
+
+  // Robolectric has no codecs. WAV files are decoded by a raw audio decoder on devices, which
+  // this one stands in for by passing the PCM through.
+  static void registerRawAudioDecoder() {
+    ShadowMediaCodecList.addCodec(MediaCodecInfoBuilder.newBuilder()
+        .setName(RAW_DECODER_NAME)
+        .setCapabilities(MediaCodecInfoBuilder.CodecCapabilitiesBuilder.newBuilder()
+            .setMediaFormat(MediaFormat.createAudioFormat(MimeTypes.AUDIO_RAW, SAMPLE_RATE, 1))
+            .build())
+        .build());
+    ShadowMediaCodec.addDecoder(RAW_DECODER_NAME, new ShadowMediaCodec.CodecConfig(
+        CODEC_BUFFER_SIZE, CODEC_BUFFER_SIZE, new ShadowMediaCodec.CodecConfig.Codec() {
+          @Override
+          public void process(final ByteBuffer in, final ByteBuffer out) {
+            out.put(in);
+          }
+        }));
+  }
+
+  // A mono, 16 bit PCM tone.
+  static byte[] createWav(final int durationMillis) {
+    final int sampleCount = (int) ((long) SAMPLE_RATE * durationMillis / 1000);
+    final int dataSize = sampleCount * 2;
+    final ByteBuffer buffer = ByteBuffer.allocate(WAV_HEADER_SIZE + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put(new byte[]{'R', 'I', 'F', 'F'}).putInt(WAV_HEADER_SIZE - 8 + dataSize);
+    buffer.put(new byte[]{'W', 'A', 'V', 'E'});
+    buffer.put(new byte[]{'f', 'm', 't', ' '}).putInt(16)
+        .putShort((short) 1) // PCM
+        .putShort((short) 1) // Channels
+        .putInt(SAMPLE_RATE)
+        .putInt(SAMPLE_RATE * 2) // Byte rate
+        .putShort((short) 2) // Block align
+        .putShort((short) 16); // Bits per sample
+    buffer.put(new byte[]{'d', 'a', 't', 'a'}).putInt(dataSize);
+    for (int i = 0; i < sampleCount; i++) {
+      buffer.putShort((short) (Math.sin(2 * Math.PI * TONE_HZ * i / SAMPLE_RATE) * Short.MAX_VALUE / 4));
+    }
+    return buffer.array();
+  }
+
+  static File writeWav(final File file, final int durationMillis) throws IOException {
+    final FileOutputStream stream = new FileOutputStream(file);
+    try {
+      stream.write(createWav(durationMillis));
+    } finally {
+      stream.close();
+    }
+    return file;
+  }
+}
@@ -0,0 +1,96 @@
+package com.reactlibrary.player;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.WritableMap;
+import com.reactlibrary.AVModule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The status and scheduling hot paths of PlayerData on stand-in sounds, where an operation
+// handles every sound once. The playback looper stays idle during a run, so the stand-ins are
+// driven from the benchmark thread.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 15, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+public class PlayerDataBenchmarks {
+
+  @Param({"1", "10", "100", "1000"})
+  public int soundCount;
+
+  private AVModule mAVModule;
+  private List<StandInPlayerData> mPlayers;
+  private WritableMap mVolumeStatus;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    mAVModule = new AVModule(new ReactApplicationContext(RuntimeEnvironment.getApplication()));
+    mPlayers = new ArrayList<>(soundCount);
+    for (int i = 0; i < soundCount; i++) {
+      mPlayers.add(new StandInPlayerData(mAVModule));
+    }
+    mVolumeStatus = new JavaOnlyMap();
+    mVolumeStatus.putDouble(PlayerData.STATUS_VOLUME_KEY_PATH, 0.5);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    for (final StandInPlayerData player : mPlayers) {
+      player.release();
+    }
+    mAVModule.onCatalystInstanceDestroy();
+  }
+
+  @Benchmark
+  public void getStatus(final Blackhole blackhole) {
+    for (int i = 0; i < mPlayers.size(); i++) {
+      blackhole.consume(mPlayers.get(i).getStatus());
+    }
+  }
+
+  // Moves every sound on, so that each delta has a changed position.
+  @Benchmark
+  public void getStatusDelta(final Blackhole blackhole) {
+    for (int i = 0; i < mPlayers.size(); i++) {
+      final StandInPlayerData player = mPlayers.get(i);
+      player.mPositionMillis = (player.mPositionMillis + 1) % StandInPlayerData.DURATION_MILLIS;
+      blackhole.consume(player.getStatusDelta());
+    }
+  }
+
+  @Benchmark
+  public void setStatus() {
+    for (int i = 0; i < mPlayers.size(); i++) {
+      mPlayers.get(i).applyStatus(mVolumeStatus);
+    }
+  }
+
+  @Benchmark
+  public void progressScheduling() {
+    for (int i = 0; i < mPlayers.size(); i++) {
+      mPlayers.get(i).beginUpdatingProgressIfNecessary();
+    }
+    for (int i = 0; i < mPlayers.size(); i++) {
+      mPlayers.get(i).stopUpdatingProgressIfNecessary();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.reactlibrary.player;
+
+import android.net.Uri;
+import android.os.Looper;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.reactlibrary.AVModule;
+
+// Goes through the same status, scheduling and audio focus code as a real sound, but has no
+// ExoPlayer behind it and never plays.
+final class StandInPlayerData extends PlayerData {
+
+  static final int DURATION_MILLIS = 180000;
+
+  private static final Uri STAND_IN_URI = Uri.parse("standin://sound");
+
+  private boolean mIsReleased = false;
+  private boolean mIsLooping = false;
+  int mPositionMillis = 0;
+
+  StandInPlayerData(final AVModule avModule) {
+    super(avModule, STAND_IN_URI);
+  }
+
+  @Override
+  String getImplementationName() {
+    return "StandIn";
+  }
+
+  @Override
+  Looper getExoPlayerLooper() {
+    return mAVModule.getPlaybackLooper();
+  }
+
+  @Override
+  public void load(final ReadableMap status, final LoadCompletionListener loadCompletionListener) {
+    setStatus(status, null);
+    loadCompletionListener.onLoadSuccess(getStatus());
+  }
+
+  @Override
+  public void release() {
+    mIsReleased = true;
+    stopUpdatingProgressIfNecessary();
+  }
+
+  @Override
+  boolean shouldContinueUpdatingProgress() {
+    return !mIsReleased;
+  }
+
+  @Override
+  void playPlayerWithRateAndMuteIfNecessary() {
+  }
+
+  @Override
+  void applyNewStatus(final Integer newPositionMillis, final Boolean newIsLooping) {
+    if (newPositionMillis != null) {
+      mPositionMillis = newPositionMillis;
+    }
+    if (newIsLooping != null) {
+      mIsLooping = newIsLooping;
+    }
+  }
+
+  @Override
+  boolean isLoaded() {
+    return !mIsReleased;
+  }
+
+  @Override
+  void getExtraStatusFields(final PlaybackStatus status) {
+    status.durationMillis = DURATION_MILLIS;
+    status.positionMillis = mPositionMillis;
+    status.playableDurationMillis = DURATION_MILLIS;
+    status.isPlaying = mShouldPlay;
+    status.isBuffering = false;
+    status.isLooping = mIsLooping;
+  }
+
+  @Override
+  int getAudioSessionId() {
+    return 0;
+  }
+
+  @Override
+  int getCurrentPositionMillis() {
+    return mPositionMillis;
+  }
+
+  @Override
+  public void pauseImmediately() {
+  }
+
+  @Override
+  public boolean requiresAudioFocus() {
+    return false;
+  }
+
+  @Override
+  public void updateVolumeMuteAndDuck() {
+  }
+}
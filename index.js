@@ -72,6 +72,13 @@ const _getNativeSourceFromSource = (source) => {
   ) {
     overridingExtension = source.overrideFileExtensionAndroid;
   }
+  if (
+    source != null &&
+    typeof source !== 'number' &&
+    typeof source.androidImplementation === 'string'
+  ) {
+    return { uri, overridingExtension, androidImplementation: source.androidImplementation };
+  }
   return { uri, overridingExtension };
 };
 
@@ -98,6 +105,100 @@ const _getNativeSourceAndFullInitialStatusForLoadAsync = async (
   return { nativeSource, fullInitialStatus };
 };
 
+let _preloadKeyCount = 0;
+
+// Native timestamps are SystemClock.elapsedRealtime(). The smallest observed difference to the JS
+// clock is the best estimate of the offset between both clocks, since it includes the least
+// bridge delay.
+let _nativeClockOffsetMillis = null;
+
+const _getMonotonicTimeMillis = () =>
+  global.performance != null && typeof global.performance.now === 'function'
+    ? global.performance.now()
+    : Date.now();
+
+const _updateNativeClockOffset = (timestampMillis) => {
+  const offset = _getMonotonicTimeMillis() - timestampMillis;
+  if (_nativeClockOffsetMillis == null || offset < _nativeClockOffsetMillis) {
+    _nativeClockOffsetMillis = offset;
+  }
+};
+
+// Fills results[indices[i]] from the i-th native batch result and notifies the sounds.
+const _handleBatchResults = (sounds, indices, nativeResults, results) => {
+  nativeResults.forEach((result, i) => {
+    const index = indices[i];
+    const sound = sounds[index];
+    if (result.error != null) {
+      results[index] = { sound, error: result.error };
+      return;
+    }
+    // The sound may have been reloaded while the batch crossed the bridge.
+    if (result.status.isLoaded ? sound._key === result.key : !sound._loaded) {
+      sound._callOnPlaybackStatusUpdateForNewStatus(result.status);
+    }
+    results[index] = { sound, status: result.status };
+  });
+};
+
+// The keys of the synchronous status reads, which may run every frame. The bridge copies them
+// during the call, so one array is reused for every read.
+const _statusKeys = [];
+
+const _getStatusKeys = (sounds) => {
+  _statusKeys.length = sounds.length;
+  for (let i = 0; i < sounds.length; i++) {
+    _statusKeys[i] = sounds[i]._loaded ? sounds[i]._key : -1;
+  }
+  return _statusKeys;
+};
+
+// Sounds started and kept in lockstep natively, see Sound.createSyncGroupAsync.
+class SoundSyncGroup {
+
+  constructor(key, sounds) {
+    this._key = key;
+    this._sounds = sounds;
+  }
+
+  playAsync = async (positionMillis = null) => {
+    return this._handleResult(
+      await NativeModules.ExponentAV.playSyncGroup(this._key, positionMillis)
+    );
+  };
+
+  pauseAsync = async () => {
+    return this._handleResult(await NativeModules.ExponentAV.pauseSyncGroup(this._key));
+  };
+
+  setPositionAsync = async (positionMillis) => {
+    return this._handleResult(
+      await NativeModules.ExponentAV.setPositionForSyncGroup(this._key, positionMillis)
+    );
+  };
+
+  setRateAsync = async (rate, shouldCorrectPitch = false) => {
+    _throwErrorIfValuesOutOfBoundsInStatus({ rate });
+    return this._handleResult(
+      await NativeModules.ExponentAV.setRateForSyncGroup(this._key, rate, shouldCorrectPitch)
+    );
+  };
+
+  releaseAsync = async () => {
+    return NativeModules.ExponentAV.releaseSyncGroup(this._key);
+  };
+
+  _handleResult(result) {
+    this._sounds.forEach((sound) => {
+      const status = result.statuses[String(sound._key)];
+      if (status != null) {
+        sound._callOnPlaybackStatusUpdateForNewStatus(status);
+      }
+    });
+    return result;
+  }
+}
+
 class Sound {
 
   constructor() {
@@ -105,10 +206,8 @@ class Sound {
     this._loading = false;
     this._key = -1;
     this._subscriptions = [];
-    this._lastStatusUpdate = null;
-    this._lastStatusUpdateTime = null;
+    this._cachedStatus = null;
     this._onPlaybackStatusUpdate = null;
-    this._coalesceStatusUpdatesInMillis = 100;
     this._eventEmitter = new NativeEventEmitter(NativeModules.ExponentAV);
   }
 
@@ -125,6 +224,231 @@ class Sound {
     return { sound, status };
   };
 
+  // { enabled?: boolean, maxBytes?: number, cacheOnly?: boolean }
+  static setCacheConfigAsync = async (config = {}) => {
+    return NativeModules.ExponentAV.setCacheConfig(config);
+  };
+
+  static clearCacheAsync = async () => {
+    return NativeModules.ExponentAV.clearCache();
+  };
+
+  // { batch?: boolean, batchIntervalMillis?: number, delta?: boolean }
+  static setStatusEventOptionsAsync = async (options = {}) => {
+    return NativeModules.ExponentAV.setStatusEventOptions(options);
+  };
+
+  static _metricsSubscription = null;
+
+  // { enabled?: boolean, intervalMillis?: number, onMetrics?: (metrics) => void }
+  static setMetricsEventOptionsAsync = async (options = {}) => {
+    const { onMetrics, ...nativeOptions } = options;
+    if (Sound._metricsSubscription != null) {
+      Sound._metricsSubscription.remove();
+      Sound._metricsSubscription = null;
+    }
+    if (onMetrics != null) {
+      Sound._metricsSubscription = new NativeEventEmitter(NativeModules.ExponentAV).addListener(
+        'didUpdatePlaybackMetrics',
+        onMetrics
+      );
+    }
+    return NativeModules.ExponentAV.setMetricsEventOptions(nativeOptions);
+  };
+
+  // { enabled?: boolean, trace?: boolean }
+  static setInstrumentationOptionsAsync = async (options = {}) => {
+    return NativeModules.ExponentAV.setInstrumentationOptions(options);
+  };
+
+  static getInstrumentationReportAsync = async (shouldReset = false) => {
+    return NativeModules.ExponentAV.getInstrumentationReport(shouldReset);
+  };
+
+  // { maxSize?: number, warmUpCount?: number }
+  static configurePlayerPoolAsync = async (config = {}) => {
+    return NativeModules.ExponentAV.configurePlayerPool(config);
+  };
+
+  static getPlayerPoolStatsAsync = async () => {
+    return NativeModules.ExponentAV.getPlayerPoolStats();
+  };
+
+  // { maxBytes?: number }
+  static configureBufferBudgetAsync = async (config = {}) => {
+    return NativeModules.ExponentAV.configureBufferBudget(config);
+  };
+
+  static getBufferBudgetStatsAsync = async () => {
+    return NativeModules.ExponentAV.getBufferBudgetStats();
+  };
+
+  // { maxPreparedCount?: number, maxIdleMillis?: number }
+  static configureIdleEvictionAsync = async (config = {}) => {
+    return NativeModules.ExponentAV.configureIdleEviction(config);
+  };
+
+  static getIdleEvictionStatsAsync = async () => {
+    return NativeModules.ExponentAV.getIdleEvictionStats();
+  };
+
+  // { maxVoices?: number, cacheMaxBytes?: number, useDirectBuffers?: boolean }
+  static configureSoundEffectsAsync = async (config = {}) => {
+    return NativeModules.ExponentAV.configureSoundEffects(config);
+  };
+
+  static getSoundEffectCacheStatsAsync = async () => {
+    return NativeModules.ExponentAV.getSoundEffectCacheStats();
+  };
+
+  static clearSoundEffectCacheAsync = async () => {
+    return NativeModules.ExponentAV.clearSoundEffectCache();
+  };
+
+  // Batches take one bridge call for any number of sounds. They resolve with one result per
+  // sound, in order: { sound, status } on success or { sound, error } on failure, and only reject
+  // if the whole call failed.
+
+  // entries: [{ sound, status }]
+  static setStatusForSoundsAsync = async (entries) => {
+    const results = new Array(entries.length);
+    const nativeEntries = [];
+    const indices = [];
+    entries.forEach(({ sound, status }, index) => {
+      if (!sound._loaded) {
+        results[index] = { sound, error: 'Cannot complete operation because sound is not loaded.' };
+        return;
+      }
+      try {
+        _throwErrorIfValuesOutOfBoundsInStatus(status);
+      } catch (error) {
+        results[index] = { sound, error: error.message };
+        return;
+      }
+      nativeEntries.push({ key: sound._key, status });
+      indices.push(index);
+    });
+    if (nativeEntries.length > 0) {
+      const nativeResults = await NativeModules.ExponentAV.setStatusForSounds(nativeEntries);
+      _handleBatchResults(entries.map(({ sound }) => sound), indices, nativeResults, results);
+    }
+    return results;
+  };
+
+  static getStatusForSoundsAsync = async (sounds) => {
+    const results = new Array(sounds.length);
+    const keys = [];
+    const indices = [];
+    sounds.forEach((sound, index) => {
+      if (!sound._loaded) {
+        const status = _getUnloadedStatus();
+        sound._callOnPlaybackStatusUpdateForNewStatus(status);
+        results[index] = { sound, status };
+        return;
+      }
+      keys.push(sound._key);
+      indices.push(index);
+    });
+    if (keys.length > 0) {
+      const nativeResults = await NativeModules.ExponentAV.getStatusForSounds(keys);
+      _handleBatchResults(sounds, indices, nativeResults, results);
+    }
+    return results;
+  };
+
+  static unloadSoundsAsync = async (sounds) => {
+    const results = new Array(sounds.length);
+    const keys = [];
+    const indices = [];
+    sounds.forEach((sound, index) => {
+      if (!sound._loaded) {
+        const status = _getUnloadedStatus();
+        sound._callOnPlaybackStatusUpdateForNewStatus(status);
+        results[index] = { sound, status };
+        return;
+      }
+      sound._loaded = false;
+      keys.push(sound._key);
+      sound._key = -1;
+      indices.push(index);
+    });
+    if (keys.length > 0) {
+      const nativeResults = await NativeModules.ExponentAV.unloadForSounds(keys);
+      _handleBatchResults(sounds, indices, nativeResults, results);
+    }
+    return results;
+  };
+
+  // Reads the latest native status of many sounds synchronously in one call, e.g. once per frame
+  // for meters and progress bars. Returns STATUS_FIELD_COUNT numbers per sound: isLoaded,
+  // positionMillis, durationMillis, playableDurationMillis, isPlaying, isBuffering, rate and
+  // volume, with booleans as 0 or 1. They are copied into target if one is given.
+  static STATUS_FIELD_COUNT = 8;
+
+  static readStatusFieldsSync = (sounds, target = null) => {
+    const nativeFields = NativeModules.ExponentAV.getStatusFieldsForSoundsSync(_getStatusKeys(sounds));
+    if (target == null) {
+      return nativeFields;
+    }
+    for (let i = 0; i < nativeFields.length; i++) {
+      target[i] = nativeFields[i];
+    }
+    return target;
+  };
+
+  // { minBufferedMillis?: number, driftThresholdMillis?: number,
+  //   driftCheckIntervalMillis?: number, startTimeoutMillis?: number }
+  static createSyncGroupAsync = async (sounds, options = {}) => {
+    sounds.forEach((sound) => {
+      if (!sound._loaded) {
+        throw new Error('Cannot create a sync group because a sound is not loaded.');
+      }
+    });
+    const key = await NativeModules.ExponentAV.createSyncGroup(
+      sounds.map((sound) => sound._key),
+      options
+    );
+    return new SoundSyncGroup(key, sounds);
+  };
+
+  // { lengthBytes?: number, lengthMillis?: number, estimatedBitrate?: number,
+  //   maxConcurrentDownloads?: number, onProgress?: (progress) => void }
+  static preloadAsync = async (sources, options = {}) => {
+    const { onProgress, ...nativeOptions } = options;
+    const nativeSources = sources.map((source) => {
+      const nativeSource = _getNativeSourceFromSource(source);
+      if (nativeSource == null) {
+        throw new Error('Cannot preload null source!');
+      }
+      return nativeSource;
+    });
+    const preloadKey = _preloadKeyCount++;
+    let subscription = null;
+    if (onProgress != null) {
+      subscription = new NativeEventEmitter(NativeModules.ExponentAV).addListener(
+        'didUpdatePreloadProgress',
+        (progress) => {
+          if (progress.preloadKey === preloadKey) {
+            onProgress(progress);
+          }
+        }
+      );
+    }
+    try {
+      return await NativeModules.ExponentAV.preloadForSounds(preloadKey, nativeSources, nativeOptions);
+    } finally {
+      if (subscription != null) {
+        subscription.remove();
+      }
+    }
+  };
+
+  // Cancels the preloading of the given source, or of every source if none is passed.
+  static cancelPreloadAsync = async (source = null) => {
+    const nativeSource = source == null ? null : _getNativeSourceFromSource(source);
+    return NativeModules.ExponentAV.cancelPreload(nativeSource == null ? null : nativeSource.uri);
+  };
+
   loadAsync = async (
     source,
     initialStatus = {},
@@ -138,39 +462,78 @@ class Sound {
       const { nativeSource, fullInitialStatus }
         = await _getNativeSourceAndFullInitialStatusForLoadAsync(source, initialStatus);
 
-      // This is a workaround, since using load with resolve / reject seems to not work.
-      return new Promise(
-        function (resolve, reject) {
-          const loadSuccess = (
-            key,
-            status,
-          ) => {
-            this._key = key;
-            this._loaded = true;
-            this._loading = false;
-            NativeModules.ExponentAV.setErrorCallbackForSound(this._key, this._errorCallback);
-            this._subscribeToNativeStatusUpdateEvents();
-            this._callOnPlaybackStatusUpdateForNewStatus(status);
-            resolve(status);
-          };
-          const loadError = (error) => {
-            this._loading = false;
-            reject(new Error(error));
-          };
-
-          NativeModules.ExponentAV.loadForSound(
-            nativeSource,
-            fullInitialStatus,
-            loadSuccess,
-            loadError
-          );
-        }.bind(this)
+      return this._performNativeLoadAsync((loadSuccess, loadError) =>
+        NativeModules.ExponentAV.loadForSound(
+          nativeSource,
+          fullInitialStatus,
+          loadSuccess,
+          loadError
+        )
       );
     } else {
       throw new Error('The Sound is already loaded.');
     }
   };
 
+  // Loads several sources into one player that plays them back to back without gaps.
+  loadQueueAsync = async (
+    sources,
+    initialStatus = {},
+  ) => {
+    if (this._loading) {
+      throw new Error('The Sound is already loading.');
+    }
+    if (this._loaded) {
+      throw new Error('The Sound is already loaded.');
+    }
+    if (sources == null || sources.length === 0) {
+      throw new Error('Cannot load an empty queue!');
+    }
+    this._loading = true;
+    const nativeSources = [];
+    let fullInitialStatus = null;
+    for (const source of sources) {
+      const nativeSourceAndStatus =
+        await _getNativeSourceAndFullInitialStatusForLoadAsync(source, initialStatus);
+      nativeSources.push(nativeSourceAndStatus.nativeSource);
+      fullInitialStatus = nativeSourceAndStatus.fullInitialStatus;
+    }
+    return this._performNativeLoadAsync((loadSuccess, loadError) =>
+      NativeModules.ExponentAV.loadQueueForSound(
+        nativeSources,
+        fullInitialStatus,
+        loadSuccess,
+        loadError
+      )
+    );
+  };
+
+  // This is a workaround, since using load with resolve / reject seems to not work.
+  _performNativeLoadAsync(load) {
+    return new Promise(
+      function (resolve, reject) {
+        const loadSuccess = (
+          key,
+          status,
+        ) => {
+          this._key = key;
+          this._loaded = true;
+          this._loading = false;
+          NativeModules.ExponentAV.setErrorCallbackForSound(this._key, this._errorCallback);
+          this._subscribeToNativeStatusUpdateEvents();
+          this._callOnPlaybackStatusUpdateForNewStatus(status);
+          resolve(status);
+        };
+        const loadError = (error) => {
+          this._loading = false;
+          reject(new Error(error));
+        };
+
+        load(loadSuccess, loadError);
+      }.bind(this)
+    );
+  };
+
   async unloadAsync() {
     if (this._loaded) {
       this._loaded = false;
@@ -244,17 +607,57 @@ class Sound {
     return this.setStatusAsync({ progressUpdateIntervalMillis });
   };
 
+  // Queue methods, only available after loadQueueAsync.
+  async appendToQueueAsync(sources) {
+    const nativeSources = sources.map((source) => {
+      const nativeSource = _getNativeSourceFromSource(source);
+      if (nativeSource == null) {
+        throw new Error('Cannot append null source!');
+      }
+      return nativeSource;
+    });
+    return this._performOperationAndHandleStatusAsync(() =>
+      NativeModules.ExponentAV.appendToQueueForSound(this._key, nativeSources)
+    );
+  };
+  async removeFromQueueAsync(index) {
+    return this._performOperationAndHandleStatusAsync(() =>
+      NativeModules.ExponentAV.removeFromQueueForSound(this._key, index)
+    );
+  };
+  async moveInQueueAsync(fromIndex, toIndex) {
+    return this._performOperationAndHandleStatusAsync(() =>
+      NativeModules.ExponentAV.moveInQueueForSound(this._key, fromIndex, toIndex)
+    );
+  };
+  async skipToQueueIndexAsync(index, positionMillis = null) {
+    return this._performOperationAndHandleStatusAsync(() =>
+      NativeModules.ExponentAV.skipToQueueIndexForSound(this._key, index, positionMillis)
+    );
+  };
+
   //internal methods
-  _callOnPlaybackStatusUpdateForNewStatus(status) {
-    const shouldDismissBasedOnCoalescing =
-      this._lastStatusUpdateTime &&
-      JSON.stringify(status) === this._lastStatusUpdate &&
-      new Date() - this._lastStatusUpdateTime < this._coalesceStatusUpdatesInMillis;
 
-    if (this._onPlaybackStatusUpdate != null && !shouldDismissBasedOnCoalescing) {
+  // In delta mode native only sends the fields that changed, which are merged into the last
+  // known status. didJustFinish is a one-off flag and never carries over.
+  _getFullStatusForNativeStatus(status) {
+    if (!status.isDelta) {
+      this._cachedStatus = status;
+      return status;
+    }
+    const { isDelta, ...delta } = status;
+    this._cachedStatus = { ...this._cachedStatus, didJustFinish: false, ...delta };
+    return this._cachedStatus;
+  };
+
+  // Duplicate statuses are already dropped and coalesced natively, see minStatusUpdateIntervalMillis.
+  _callOnPlaybackStatusUpdateForNewStatus(nativeStatus) {
+    if (typeof nativeStatus.timestampMillis === 'number') {
+      _updateNativeClockOffset(nativeStatus.timestampMillis);
+    }
+    const status = this._getFullStatusForNativeStatus(nativeStatus);
+    if (this._onPlaybackStatusUpdate != null) {
       this._onPlaybackStatusUpdate(status);
-      this._lastStatusUpdateTime = new Date();
-      this._lastStatusUpdate = JSON.stringify(status);
     }
   };
 
@@ -275,6 +678,14 @@ class Sound {
     }
   };
 
+  // In batched mode, one event carries the statuses of all sounds updated within the window.
+  _internalStatusBatchUpdateCallback = ({ statuses }) => {
+    const status = statuses[String(this._key)];
+    if (status != null) {
+      this._callOnPlaybackStatusUpdateForNewStatus(status);
+    }
+  };
+
   // TODO: We can optimize by only using time observer on native if (this._onPlaybackStatusUpdate).
   _subscribeToNativeStatusUpdateEvents() {
     if (this._loaded) {
@@ -284,6 +695,12 @@ class Sound {
           this._internalStatusUpdateCallback
         )
       );
+      this._subscriptions.push(
+        this._eventEmitter.addListener(
+          'didUpdatePlaybackStatusBatch',
+          this._internalStatusBatchUpdateCallback
+        )
+      );
     }
   };
 
@@ -299,6 +716,43 @@ class Sound {
     return status;
   };
 
+  // Resolves null for sounds that do not collect metrics, such as sound effects.
+  getMetricsAsync = async () => {
+    if (!this._loaded) {
+      throw new Error('Cannot complete operation because sound is not loaded.');
+    }
+    return NativeModules.ExponentAV.getMetricsForSound(this._key);
+  };
+
+  // Reads the current position synchronously from native. Sound.readStatusFieldsSync reads many
+  // sounds in one call.
+  getPositionMillisSync() {
+    if (!this._loaded) {
+      return 0;
+    }
+    _statusKeys.length = 1;
+    _statusKeys[0] = this._key;
+    return NativeModules.ExponentAV.getStatusFieldsForSoundsSync(_statusKeys)[1];
+  }
+
+  // Extrapolates the current position from the last known status without crossing the bridge,
+  // e.g. to animate a progress bar every frame while native only reports discontinuities.
+  estimatePositionMillis() {
+    const status = this._cachedStatus;
+    if (status == null || !status.isLoaded) {
+      return 0;
+    }
+    if (!status.effectiveRate || typeof status.timestampMillis !== 'number' || _nativeClockOffsetMillis == null) {
+      return status.positionMillis;
+    }
+    const nativeNowMillis = _getMonotonicTimeMillis() - _nativeClockOffsetMillis;
+    let positionMillis = status.positionMillis + (nativeNowMillis - status.timestampMillis) * status.effectiveRate;
+    if (status.durationMillis > 0) {
+      positionMillis = Math.min(positionMillis, status.durationMillis);
+    }
+    return Math.max(0, positionMillis);
+  };
+
   setOnPlaybackStatusUpdate(onPlaybackStatusUpdate) {
     this._onPlaybackStatusUpdate = onPlaybackStatusUpdate;
     this.getStatusAsync();